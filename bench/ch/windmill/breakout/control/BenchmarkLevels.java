@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Ball;
+import ch.windmill.breakout.model.Level;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * This class creates levels for the benchmarks. A benchmark level is a square grid that
+ * is completely filled with red bricks.
+ * @author Cyrill Jauner
+ */
+public class BenchmarkLevels {
+    
+    public static final int WIDTH = 600;
+    public static final int HEIGHT = 600;
+    
+    private static final int RED = 0xFFFF0000;
+    
+    private BenchmarkLevels() {
+        
+    }
+    
+    /**
+     * Gets the number of bricks in a row of a level with the given number of bricks.
+     * @param numBricks The number of bricks.
+     * @return The number of bricks in a row.
+     */
+    public static int numBricksXAxis(int numBricks) {
+        return Math.max(1, (int) Math.ceil(Math.sqrt(numBricks)));
+    }
+    
+    /**
+     * Creates an rgb array with the given number of red bricks.
+     * @param numBricks The number of bricks.
+     * @return Array with rgb values.
+     */
+    public static int[] createRgb(int numBricks) {
+        int[] rgb = new int[numBricks];
+        Arrays.fill(rgb, RED);
+        return rgb;
+    }
+    
+    /**
+     * Creates a level image with the given number of red bricks.
+     * @param numBricks The number of bricks.
+     * @return A level image.
+     */
+    public static BufferedImage createImage(int numBricks) {
+        int cols = numBricksXAxis(numBricks);
+        int rows = (numBricks + cols - 1) / cols;
+        BufferedImage img = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_RGB);
+        for(int i = 0; i < numBricks; i++) {
+            img.setRGB(i % cols, i / cols, RED);
+        }
+        return img;
+    }
+    
+    /**
+     * Creates a level with the given number of bricks and balls. The bricks fill the upper
+     * half of the level, the balls are spread over the lower half.
+     * @param numBricks The number of bricks.
+     * @param numBalls The number of balls.
+     * @return A new level object.
+     */
+    public static Level createLevel(int numBricks, int numBalls) {
+        int cols = numBricksXAxis(numBricks);
+        float brickWidth = (float) WIDTH / cols;
+        float brickHeight = (HEIGHT / 2f) / ((numBricks + cols - 1) / cols);
+        Level level = new Level(brickWidth, brickHeight, WIDTH, HEIGHT);
+        level.generateBricks(createRgb(numBricks), cols);
+        level.setPaddle(LevelManager.createInitPaddle(WIDTH, HEIGHT));
+        for(int i = 0; i < numBalls; i++) {
+            Ball ball = LevelManager.createInitBall();
+            ball.position.set((i * 37) % (WIDTH - 30), HEIGHT / 2 + (i * 53) % (HEIGHT / 4));
+            ball.lastPosition.set(ball.position);
+            if(i % 2 == 1) {
+                ball.velocity.mulY(-1);
+            }
+            level.addBall(ball);
+        }
+        return level;
+    }
+}
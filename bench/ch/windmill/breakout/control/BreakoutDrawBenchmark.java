@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.engine.GameState;
+import ch.windmill.engine.RenderProfile;
+import ch.windmill.engine.RenderProfile.Layer;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks drawing a breakout frame into an offscreen image. The image has the same type
+ * and render profile as the buffer of the game screen. The bricks are drawn from the cached
+ * layer or in batches per type, the drawEachBrick benchmark draws them one by one.
+ * @author Cyrill Jauner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BreakoutDrawBenchmark {
+    
+    @Param({"100", "10000"})
+    public int numBricks;
+    
+    @Param({"1", "100"})
+    public int numBalls;
+    
+    @Param({"true", "false"})
+    public boolean cached;
+    
+    @Param({"FAST", "BALANCED", "QUALITY"})
+    public RenderProfile profile;
+    
+    private Breakout breakout;
+    private GameState state;
+    private BufferedImage buffer;
+    private Graphics2D g2;
+    
+    @Setup
+    public void setUp() {
+        breakout = new Breakout(BenchmarkLevels.WIDTH, BenchmarkLevels.HEIGHT);
+        breakout.setLevel(BenchmarkLevels.createLevel(numBricks, numBalls));
+        breakout.setBrickCaching(cached);
+        state = new GameState();
+        state.interpolate = 0.5f;
+        state.setRenderProfile(profile);
+        buffer = new BufferedImage(BenchmarkLevels.WIDTH, BenchmarkLevels.HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        g2 = buffer.createGraphics();
+        profile.apply(Layer.SHAPES, g2);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+    
+    @Benchmark
+    public BufferedImage draw() {
+        g2.setColor(Color.white);
+        g2.fillRect(0, 0, BenchmarkLevels.WIDTH, BenchmarkLevels.HEIGHT);
+        breakout.draw(state, g2);
+        return buffer;
+    }
+    
+    @Benchmark
+    public BufferedImage drawEachBrick() {
+        g2.setColor(Color.white);
+        g2.fillRect(0, 0, BenchmarkLevels.WIDTH, BenchmarkLevels.HEIGHT);
+        breakout.getScene().getLevel().getBrickStore().draw(state, g2);
+        return buffer;
+    }
+}
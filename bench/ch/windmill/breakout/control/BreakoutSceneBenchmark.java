@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Ball;
+import ch.windmill.breakout.model.Brick;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.engine.GameState;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the physics step of a breakout scene with increasing numbers of bricks and
+ * balls. The level is rebuilt before every iteration, so destroyed bricks and lost balls
+ * do not change the workload of later iterations.
+ * @author Cyrill Jauner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BreakoutSceneBenchmark {
+    
+    @Param({"100", "10000", "100000"})
+    public int numBricks;
+    
+    @Param({"1", "10", "100"})
+    public int numBalls;
+    
+    private BreakoutScene scene;
+    private GameState state;
+    private Collision collision;
+    private Brick brick;
+    
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setUp() {
+        Level level = BenchmarkLevels.createLevel(numBricks, numBalls);
+        scene = new BreakoutScene(1.0f / 100, BenchmarkLevels.WIDTH, BenchmarkLevels.HEIGHT);
+        scene.setLevel(level);
+        state = new GameState();
+        state.setElapsed(TimeUnit.MILLISECONDS.toNanos(10));
+        
+        Ball ball = LevelManager.createInitBall();
+        collision = new Collision(ball);
+        brick = new Brick(ball.position.x, ball.position.y, 40, 20);
+    }
+    
+    @Benchmark
+    public BreakoutScene step() {
+        scene.step(state);
+        return scene;
+    }
+    
+    @Benchmark
+    public boolean ballVsRect() {
+        return scene.ballVsRect(brick, collision);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Level;
+import ch.windmill.breakout.model.LevelTemplate;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the creation of levels from images, rgb arrays and the level generator.
+ * @author Cyrill Jauner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark {
+    
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int numBricks;
+    
+    private BufferedImage img;
+    private int[] rgb;
+    private int numBricksXAxis;
+    private LevelGenerator generator;
+    
+    @Setup
+    public void setUp() {
+        img = BenchmarkLevels.createImage(numBricks);
+        rgb = BenchmarkLevels.createRgb(numBricks);
+        numBricksXAxis = BenchmarkLevels.numBricksXAxis(numBricks);
+        int rows = (numBricks + numBricksXAxis - 1) / numBricksXAxis;
+        generator = new LevelGenerator(1).setGridSize(numBricksXAxis, rows).setDensity(1);
+    }
+    
+    @Benchmark
+    public Level loadFromImage() {
+        return Level.loadFromImage(img, BenchmarkLevels.WIDTH, BenchmarkLevels.HEIGHT, numBricksXAxis);
+    }
+    
+    @Benchmark
+    public Level generateBricks() {
+        Level level = new Level(1, 1, BenchmarkLevels.WIDTH, BenchmarkLevels.HEIGHT);
+        level.generateBricks(rgb, numBricksXAxis);
+        return level;
+    }
+    
+    @Benchmark
+    public LevelTemplate generate() {
+        return generator.generate(0, BenchmarkLevels.WIDTH, BenchmarkLevels.HEIGHT);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.core;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the vector arithmetic. Each operation is measured in the variant that returns
+ * a new vector and in the variant that works in place.
+ * @author Cyrill Jauner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector2FBenchmark {
+    
+    private Vector2F v1, v2, out;
+    private float d;
+    
+    @Setup
+    public void setUp() {
+        v1 = new Vector2F(3, 4);
+        v2 = new Vector2F(-1, 2);
+        out = new Vector2F();
+        d = 0.01f;
+    }
+    
+    @Benchmark
+    public Vector2F sub() {
+        return Vector2F.sub(v1, v2);
+    }
+    
+    @Benchmark
+    public Vector2F subInto() {
+        return Vector2F.sub(v1, v2, out);
+    }
+    
+    @Benchmark
+    public Vector2F multiplyAdd() {
+        Vector2F v = Vector2F.copyOf(v1);
+        v.add(Vector2F.multiply(v2, d));
+        return v;
+    }
+    
+    @Benchmark
+    public Vector2F addScaled() {
+        out.set(v1);
+        out.addScaled(v2, d);
+        return out;
+    }
+    
+    @Benchmark
+    public Vector2F normalize() {
+        out.set(v1);
+        out.normalize();
+        return out;
+    }
+    
+    @Benchmark
+    public double dot() {
+        return Vector2F.dot(v1, v2);
+    }
+}
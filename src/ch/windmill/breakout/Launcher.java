@@ -24,6 +24,8 @@
 package ch.windmill.breakout;
 
 import ch.windmill.breakout.view.BreakoutFrame;
+import ch.windmill.engine.GameScreen.RenderBackend;
+import java.util.Arrays;
 
 /**
  * The launcher to start the breakout application.
@@ -34,8 +36,25 @@ public class Launcher {
     private static final int WIDTH = 600;
     private static final int HEIGHT = 600;
     
+    /**
+     * Starts breakout. The optional first argument is the render backend of the game screen,
+     * e.g. buffer_strategy. If the second argument is "threaded", the game is updated and
+     * drawn by two threads. An unknown render backend prints the valid backends and exits.
+     * @param args The command line arguments.
+     */
     public static void main(String[] args) {
-        BreakoutFrame frame = new BreakoutFrame(WIDTH, HEIGHT);
+        RenderBackend backend = RenderBackend.IMAGE;
+        if(args.length > 0) {
+            try {
+                backend = RenderBackend.valueOf(args[0].toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                System.err.println("Unknown render backend "+args[0]+", valid backends are "+
+                        Arrays.toString(RenderBackend.values()).toLowerCase());
+                System.exit(1);
+            }
+        }
+        boolean threaded = args.length > 1 && args[1].equalsIgnoreCase("threaded");
+        BreakoutFrame frame = new BreakoutFrame(WIDTH, HEIGHT, backend, threaded);
         
         frame.setVisible(true);
     }
@@ -24,32 +24,92 @@
 package ch.windmill.breakout.control;
 
 import ch.windmill.breakout.model.Ball;
-import ch.windmill.breakout.model.Brick;
+import ch.windmill.breakout.model.BrickBatch;
+import ch.windmill.breakout.model.BrickLayer;
 import ch.windmill.breakout.model.Level;
 import ch.windmill.breakout.model.Paddle;
-import ch.windmill.engine.Game;
 import ch.windmill.engine.GameState;
+import ch.windmill.engine.RenderProfile;
+import ch.windmill.engine.RenderProfile.Layer;
+import ch.windmill.engine.SnapshotGame;
 import ch.windmill.engine.input.GameInput;
+import ch.windmill.engine.input.InputEventType;
+import ch.windmill.engine.input.InputRecorder;
+import ch.windmill.engine.input.InputSnapshot;
 import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
 
 /**
  * This class provides the game class for breakout.
  * @author Cyrill Jauner
  */
-public class Breakout implements Game {
+public class Breakout implements SnapshotGame<BreakoutSnapshot> {
     
-    private boolean running;
+    private volatile boolean running;
     private float accu;
     private BreakoutScene scene;
+    private InputRecorder recorder;
+    private BrickLayer brickLayer;
+    private final BrickBatch brickBatch;
+    
+    /**
+     * The brick batch of the render thread in the threaded mode.
+     */
+    private final BrickBatch snapshotBatch;
     
     public Breakout(int panelWidth, int panelHeight) {
         running = false;
         accu = 0;
         scene = new BreakoutScene(1.0f / 100, panelWidth, panelHeight);
+        recorder = null;
+        brickLayer = new BrickLayer(panelWidth, panelHeight);
+        brickBatch = new BrickBatch();
+        snapshotBatch = new BrickBatch();
     }
     
     public void setLevel(Level level) {
         scene.setLevel(level);
+        if(brickLayer != null) {
+            brickLayer.setLevel(level);
+        }
+    }
+    
+    /**
+     * Sets wheter the bricks are drawn from a cached layer or in batches per type in every
+     * frame. The cached layer is used by default.
+     * @param cached Wheter the bricks are cached or not.
+     */
+    public void setBrickCaching(boolean cached) {
+        if(cached && brickLayer == null) {
+            Rectangle2D.Float boundary = scene.getBoundary();
+            brickLayer = new BrickLayer((int) boundary.width, (int) boundary.height);
+            brickLayer.setLevel(scene.getLevel());
+        } else if(!cached && brickLayer != null) {
+            brickLayer.setLevel(null);
+            brickLayer = null;
+        }
+    }
+
+    public BreakoutScene getScene() {
+        return scene;
+    }
+    
+    /**
+     * Sets the deterministic mode of the scene. In this mode, every update moves the balls
+     * by the fixed delta time of the scene. Together with an input recording, a game can be
+     * replayed with the same result.
+     * @param deterministic Wheter the updates are independent of the elapsed time.
+     */
+    public void setDeterministic(boolean deterministic) {
+        scene.setDeterministic(deterministic);
+    }
+    
+    /**
+     * Sets a recorder that records the input of every update.
+     * @param recorder The input recorder or null to stop recording.
+     */
+    public void setInputRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
     }
     
     @Override
@@ -61,47 +121,83 @@ public class Breakout implements Game {
     public void update(GameState state) {
         scene.step(state);
         
-        Level level = scene.getLevel();
-        boolean allBricksDestroyed = true;
-        for(Brick b : level.getBricks()) {
-            if(!b.isDestroyed()) {
-                allBricksDestroyed = false;
-                break;
-            }
-        }
-        if(allBricksDestroyed || scene.isLastBallOut()) {
+        if(scene.getLevel().remainingBricks() == 0 || scene.isLastBallOut()) {
             terminate();
-            scene.reset();
+            resetScene();
         }
     }
     
+    /**
+     * Moves the paddle to the mouse. Every move event of the tick is checked in order, the
+     * paddle is moved to the last position that is inside the boundary. The positions before
+     * it are dropped, because the scene tests the paddle once per step at its position and the
+     * recorder stores one position per tick. If the tick has no events, e.g. in a replay, the
+     * mouse fields of the input are used.
+     * @param input The game input.
+     */
     @Override
     public void input(GameInput input) {
-        if(input.mouseMoving){
-            Level level = scene.getLevel();
-            Paddle paddle = level.getPaddle();
-            
-            if((input.mouseX + paddle.width) <= scene.getBoundary().width) {
-                paddle.lastPosition.x = input.mouseX;
-                paddle.position.x = input.mouseX;
+        Paddle paddle = scene.getLevel().getPaddle();
+        float width = scene.getBoundary().width;
+        InputSnapshot events = input.getSnapshot();
+        boolean moved = false;
+        int x = 0;
+        
+        if(events.size() > 0) {
+            for(int i = 0; i < events.size(); i++) {
+                if(events.getType(i) == InputEventType.Move && events.getX(i) + paddle.width <= width) {
+                    moved = true;
+                    x = events.getX(i);
+                }
             }
+        } else if(input.mouseMoving && input.mouseX + paddle.width <= width) {
+            moved = true;
+            x = input.mouseX;
+        }
+        
+        if(recorder != null) {
+            recorder.record(moved, x);
+        }
+        if(moved) {
+            paddle.lastPosition.x = x;
+            paddle.position.x = x;
         }
     }
 
     @Override
     public void draw(GameState state, Graphics2D g2) {
         Level level = scene.getLevel();
-        for(Brick brick : level.getBricks()) {
-            if(!brick.isDestroyed()) {
-                brick.draw(state, g2);
-            }
+        RenderProfile profile = state.getRenderProfile();
+        if(brickLayer != null) {
+            profile.apply(Layer.IMAGES, g2);
+            brickLayer.draw(state, g2);
+        } else {
+            profile.apply(Layer.RECTS, g2);
+            brickBatch.draw(level.getBrickStore(), g2);
         }
+        profile.apply(Layer.SHAPES, g2);
         for(Ball ball : level.getBalls()) {
             ball.draw(state, g2);
         }
+        profile.apply(Layer.RECTS, g2);
         level.getPaddle().draw(state, g2);
     }
 
+    @Override
+    public BreakoutSnapshot createSnapshot() {
+        return new BreakoutSnapshot();
+    }
+
+    @Override
+    public void writeSnapshot(BreakoutSnapshot snapshot) {
+        snapshot.write(scene.getLevel());
+    }
+
+    @Override
+    public void drawSnapshot(GameState state, BreakoutSnapshot snapshot, Graphics2D g2) {
+        snapshot.draw(state, snapshotBatch, g2);
+    }
+
     @Override
     public void terminate() {
         running = false;
@@ -116,6 +212,16 @@ public class Breakout implements Game {
         if(running) {
             running = false;
         }
+        resetScene();
+    }
+    
+    /**
+     * Resets the scene. The restored bricks are drawn again in the next frame.
+     */
+    private void resetScene() {
         scene.reset();
+        if(brickLayer != null) {
+            brickLayer.invalidate();
+        }
     }
 }
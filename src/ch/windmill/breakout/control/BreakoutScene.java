@@ -24,24 +24,64 @@
 package ch.windmill.breakout.control;
 
 import ch.windmill.breakout.model.Ball;
-import ch.windmill.breakout.model.Brick;
+import ch.windmill.breakout.model.BrickGrid;
+import ch.windmill.breakout.model.BrickStore;
 import ch.windmill.breakout.model.Level;
+import ch.windmill.breakout.model.Paddle;
 import ch.windmill.breakout.model.Rect;
 import ch.windmill.engine.GameState;
 import ch.windmill.engine.core.Vector2F;
 import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * This class represents a scene to play breakout.
+ * This class represents a scene to play breakout. A physics step has two phases. The first
+ * phase moves every ball and detects its collision against the bricks as they were at the
+ * start of the step. The balls are independent in this phase, so it can run in parallel on
+ * a fork/join pool. The second phase resolves the collisions in the order of the ball list.
+ * If several balls hit the same brick in one step, every ball bounces off the brick and the
+ * damage is applied in ball order. The result of a step is the same with and without a pool.
+ * In deterministic mode, the balls move by the fixed delta time of the scene instead of the
+ * elapsed time of the game state, so a game only depends on its input.
+ * In continuous mode, the path of a ball is swept against the bricks, the paddle and the walls.
+ * The ball stops at the earliest contact in a step, bounces off and moves on for the remaining
+ * time. This prevents fast balls from tunneling through thin bricks.
  * @author Cyrill Jauner
  */
-public class BreakoutScene {
+@SuppressWarnings("strictfp") // The build targets Java 8, where strictfp keeps float results identical on all JVMs.
+public strictfp class BreakoutScene {
     
     private float dt;
+    private boolean deterministic;
+    private boolean continuous;
     private boolean lastBallOut;
     private Rectangle2D.Float boundary;
     private Level level;
     
+    /**
+     * Reused collision objects, one for each ball. A sequential step does not allocate any objects.
+     */
+    private Collision[] collisions;
+    
+    /**
+     * The pool for parallel steps or null if the steps run sequential.
+     */
+    private ForkJoinPool pool;
+    private int parallelThreshold;
+    
+    /**
+     * The default number of balls that a parallel task handles without splitting.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 16;
+    
+    /**
+     * The time of impact of a sweep that hits nothing.
+     */
+    private static final float NO_HIT = 2;
+    
     /**
      * Creates a new BreakoutScene object.
      * @param dt The fixed delta time to calculate physics updates.
@@ -50,9 +90,14 @@ public class BreakoutScene {
      */
     public BreakoutScene(float dt, int boundaryW, int boundaryH) {
         this.dt = dt;
+        deterministic = false;
+        continuous = false;
         level = null;
         lastBallOut = false;
         boundary = new Rectangle2D.Float(0, 0, boundaryW, boundaryH);
+        collisions = new Collision[0];
+        pool = null;
+        parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
     }
     
     /**
@@ -82,6 +127,57 @@ public class BreakoutScene {
         return lastBallOut;
     }
     
+    public float getDt() {
+        return dt;
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+    
+    /**
+     * Sets the deterministic mode. In this mode, every step moves the balls by the fixed
+     * delta time of this scene.
+     * @param deterministic Wheter the steps are independent of the elapsed time.
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+    
+    public boolean isContinuous() {
+        return continuous;
+    }
+    
+    /**
+     * Sets the continuous collision mode. In this mode, every step sweeps the balls along
+     * their path and resolves up to Collision.MAX_HITS hits in the order of their time of impact.
+     * @param continuous Wheter the collision detection is swept or not.
+     */
+    public void setContinuous(boolean continuous) {
+        this.continuous = continuous;
+    }
+    
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Sets the pool that runs the first phase of a step in parallel.
+     * @param pool The fork/join pool or null to run all steps sequential.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    /**
+     * Sets the number of balls that a parallel task handles without splitting. A step
+     * with fewer balls runs sequential, even if a pool is set.
+     * @param parallelThreshold The number of balls per task.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+    }
+    
     public void reset() {
         lastBallOut = false;
         level.reset();
@@ -92,48 +188,413 @@ public class BreakoutScene {
      * @param state The current game state.
      */
     public void step(GameState state) {
-        for(Ball b : level.getBalls()) {
-            b.update(state);
-            
-            Collision c = new Collision(b);
-            if(!c.resolveBoundaryCollision(boundary)) {
-                if (checkCollision(c)) {
-                    if (c.r instanceof Brick) {
-                        c.resolveBrickCollision();
-                        ((Brick) c.r).damage(b.getDamage());
-                    } else {
-                        c.resolvePaddleCollision();
-                    }
+        List<Ball> balls = level.getBalls();
+        int numBalls = balls.size();
+        if(collisions.length < numBalls) {
+            int oldLength = collisions.length;
+            collisions = Arrays.copyOf(collisions, numBalls);
+            for(int i = oldLength; i < numBalls; i++) {
+                collisions[i] = new Collision(null);
+            }
+        }
+        
+        if(pool != null && numBalls > parallelThreshold) {
+            pool.invoke(new DetectTask(balls, state, 0, numBalls));
+        } else {
+            for(int i = 0; i < numBalls; i++) {
+                detect(balls.get(i), collisions[i], state);
+            }
+        }
+        
+        for(int i = 0; i < numBalls; i++) {
+            resolve(collisions[i], numBalls);
+        }
+    }
+    
+    /**
+     * Moves the given ball and detects its collision. This method only changes the ball
+     * and the collision object.
+     * @param b The ball to move.
+     * @param c The collision object of the ball.
+     * @param state The current game state.
+     */
+    private void detect(Ball b, Collision c, GameState state) {
+        float seconds = deterministic ? dt : state.seconds;
+        b.update(seconds);
+        c.set(b);
+        if(continuous) {
+            sweep(c, seconds);
+        }
+        c.ground = c.resolveBoundaryCollision(boundary);
+        if(!c.ground && !continuous) {
+            checkCollision(c);
+        }
+    }
+    
+    /**
+     * Resolves a detected collision. A collided brick is damaged by the ball. In continuous
+     * mode, the bricks that were hit before the ball reached the ground are damaged as well.
+     * @param c The collision object of a ball.
+     * @param numBalls The number of balls in the level.
+     */
+    private void resolve(Collision c, int numBalls) {
+        if(continuous) {
+            for(int i = 0; i < c.numHits; i++) {
+                level.getBrickStore().damage(c.hits[i], c.b.getDamage());
+            }
+        } else if(c.brick >= 0) {
+            c.resolveBrickCollision();
+            level.getBrickStore().damage(c.brick, c.b.getDamage());
+        } else if(c.r != null) {
+            c.resolvePaddleCollision();
+        }
+        if(c.ground && numBalls == 1) {
+            lastBallOut = true;
+        }
+    }
+    
+    /**
+     * This class represents a task that runs the first phase of a step for a range of balls.
+     */
+    private class DetectTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final List<Ball> balls;
+        private final GameState state;
+        private final int from, to;
+        
+        DetectTask(List<Ball> balls, GameState state, int from, int to) {
+            this.balls = balls;
+            this.state = state;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= parallelThreshold) {
+                for(int i = from; i < to; i++) {
+                    detect(balls.get(i), collisions[i], state);
                 }
             } else {
-                if(level.getBalls().size() == 1) {
-                    lastBallOut = true;
-                }
+                int mid = (from + to) >>> 1;
+                invokeAll(new DetectTask(balls, state, from, mid), new DetectTask(balls, state, mid, to));
             }
         }
     }
     
     /**
-     * Checks if the given ball is collided.
-     * @param b The ball to proof if it is collided.
+     * Checks if the given ball is collided. Only the bricks in the grid cells that overlap
+     * the swept bounding box of the ball are tested.
      * @param c The collision object.
      * @return Wheter the ball is collided or not.
      */
     private boolean checkCollision(Collision c) {
-        for(Brick br : level.getBricks()) {
-            if(!br.isDestroyed()) {
-                if(ballVsRect(br, c)) {
-                    return true;
+        BrickGrid grid = level.getGrid();
+        BrickStore store = level.getBrickStore();
+        if(grid != null) {
+            Ball b = c.b;
+            float diameter = 2 * b.radius;
+            float minX = Math.min(b.lastPosition.x, b.position.x);
+            float minY = Math.min(b.lastPosition.y, b.position.y);
+            float maxX = Math.max(b.lastPosition.x, b.position.x) + diameter;
+            float maxY = Math.max(b.lastPosition.y, b.position.y) + diameter;
+            
+            int lastRow = grid.lastRow(maxY);
+            int lastCol = grid.lastCol(maxX);
+            for(int row = grid.firstRow(minY); row <= lastRow; row++) {
+                for(int col = grid.firstCol(minX); col <= lastCol; col++) {
+                    int br = grid.get(col, row);
+                    if(br != BrickGrid.EMPTY && ballVsBox(store.getX(br), store.getY(br),
+                            store.getWidth(br), store.getHeight(br), c)) {
+                        c.brick = br;
+                        return true;
+                    }
                 }
             }
         }
-        if(ballVsRect(level.getPaddle(), c)) {
+        Paddle paddle = level.getPaddle();
+        if(ballVsBox(paddle.position.x, paddle.position.y, paddle.width, paddle.height, c)) {
+            c.r = paddle;
             return true;
         }
         
         return false;
     }
     
+    /**
+     * Sweeps the ball of the given collision from its last position to its position. The ball
+     * bounces off every brick, the paddle and the walls it hits on the way. The hit bricks are
+     * stored in the collision object, they are damaged in the second phase of the step. A brick
+     * or the paddle is hit at most once per step. The ground is left to the boundary check.
+     * @param c The collision object of the ball.
+     * @param seconds The time of the step.
+     */
+    private void sweep(Collision c, float seconds) {
+        Ball b = c.b;
+        float r = b.radius;
+        float px = b.lastPosition.x + r;
+        float py = b.lastPosition.y + r;
+        float dx = b.position.x - b.lastPosition.x;
+        float dy = b.position.y - b.lastPosition.y;
+        float time = seconds;
+        
+        while(dx != 0 || dy != 0) {
+            float t = earliestHit(c, px, py, dx, dy);
+            if(t > 1) {
+                break;
+            }
+            px += t * dx;
+            py += t * dy;
+            time *= (1 - t);
+            b.position.set(px - r, py - r);
+            if(c.brick >= 0) {
+                c.hits[c.numHits++] = c.brick;
+                c.reflect();
+            } else if(c.r != null) {
+                c.paddleHit = true;
+                c.resolvePaddleCollision();
+            } else {
+                c.reflect();
+            }
+            
+            if(c.numHits == Collision.MAX_HITS) {
+                dx = 0;
+                dy = 0;
+            } else {
+                dx = b.velocity.x * time;
+                dy = b.velocity.y * time;
+            }
+        }
+        b.position.set(px + dx - r, py + dy - r);
+    }
+    
+    /**
+     * Finds the earliest hit of the ball center on the segment from p to p + d. Bricks that
+     * were already hit in this step and a paddle that was already hit are ignored. On a hit,
+     * this method sets the brick or the paddle and the normal of the collision object. A wall
+     * hit sets neither of them.
+     * @param c The collision object of the ball.
+     * @param px The x-coordinate of the start point.
+     * @param py The y-coordinate of the start point.
+     * @param dx The x-coordinate of the displacement.
+     * @param dy The y-coordinate of the displacement.
+     * @return The time of impact in the range 0 to 1 or a value greater than 1 if nothing is hit.
+     */
+    private float earliestHit(Collision c, float px, float py, float dx, float dy) {
+        float r = c.b.radius;
+        float best = NO_HIT;
+        int bestBrick = -1;
+        float bestNx = 0, bestNy = 0;
+        
+        BrickGrid grid = level.getGrid();
+        if(grid != null) {
+            BrickStore store = level.getBrickStore();
+            int lastRow = grid.lastRow(Math.max(py, py + dy) + r);
+            int lastCol = grid.lastCol(Math.max(px, px + dx) + r);
+            int firstCol = grid.firstCol(Math.min(px, px + dx) - r);
+            for(int row = grid.firstRow(Math.min(py, py + dy) - r); row <= lastRow; row++) {
+                for(int col = firstCol; col <= lastCol; col++) {
+                    int br = grid.get(col, row);
+                    if(br != BrickGrid.EMPTY && !isHit(c, br)) {
+                        float t = sweepBox(store.getX(br), store.getY(br), store.getWidth(br),
+                                store.getHeight(br), r, px, py, dx, dy, c.n);
+                        if(t < best) {
+                            best = t;
+                            bestBrick = br;
+                            bestNx = c.n.x;
+                            bestNy = c.n.y;
+                        }
+                    }
+                }
+            }
+        }
+        
+        Paddle paddle = level.getPaddle();
+        c.r = null;
+        if(!c.paddleHit) {
+            float t = sweepBox(paddle.position.x, paddle.position.y, paddle.width, paddle.height,
+                    r, px, py, dx, dy, c.n);
+            if(t < best) {
+                best = t;
+                bestBrick = -1;
+                bestNx = c.n.x;
+                bestNy = c.n.y;
+                c.r = paddle;
+            }
+        }
+        
+        float t = sweepWalls(r, px, py, dx, dy, c.n);
+        if(t < best) {
+            best = t;
+            bestBrick = -1;
+            bestNx = c.n.x;
+            bestNy = c.n.y;
+            c.r = null;
+        }
+        
+        c.brick = bestBrick;
+        c.n.set(bestNx, bestNy);
+        return best;
+    }
+    
+    /**
+     * Wheter the given brick was already hit in the current step.
+     * @param c The collision object of the ball.
+     * @param brick The index of the brick.
+     * @return Wheter the brick was already hit.
+     */
+    private static boolean isHit(Collision c, int brick) {
+        for(int i = 0; i < c.numHits; i++) {
+            if(c.hits[i] == brick) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Sweeps a circle against the left, the right and the top wall of the boundary. The circle
+     * center moves from p to p + d.
+     * @param r The radius of the circle.
+     * @param px The x-coordinate of the start point.
+     * @param py The y-coordinate of the start point.
+     * @param dx The x-coordinate of the displacement.
+     * @param dy The y-coordinate of the displacement.
+     * @param n The vector to store the normal of the hit.
+     * @return The time of impact in the range 0 to 1 or a value greater than 1 if no wall is hit.
+     */
+    private float sweepWalls(float r, float px, float py, float dx, float dy, Vector2F n) {
+        float left = boundary.x + r;
+        float right = boundary.x + boundary.width - r;
+        float top = boundary.y + r;
+        float best = NO_HIT;
+        if(dx < 0 && px + dx < left) {
+            best = Math.max(0, (left - px) / dx);
+            n.set(1, 0);
+        } else if(dx > 0 && px + dx > right) {
+            best = Math.max(0, (right - px) / dx);
+            n.set(-1, 0);
+        }
+        if(dy < 0 && py + dy < top) {
+            float t = Math.max(0, (top - py) / dy);
+            if(t < best) {
+                best = t;
+                n.set(0, 1);
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Sweeps a circle against a box. The circle center moves from p to p + d. The method
+     * intersects the segment with the box expanded by the radius, the corners of the expanded
+     * box are rounded. A circle that already overlaps the box is hit at time 0 if it moves
+     * towards the box.
+     * @param x The x-coordinate of the box.
+     * @param y The y-coordinate of the box.
+     * @param w The width of the box.
+     * @param h The height of the box.
+     * @param r The radius of the circle.
+     * @param px The x-coordinate of the start point.
+     * @param py The y-coordinate of the start point.
+     * @param dx The x-coordinate of the displacement.
+     * @param dy The y-coordinate of the displacement.
+     * @param n The vector to store the normal of the hit.
+     * @return The time of impact in the range 0 to 1 or a value greater than 1 if the box is not hit.
+     */
+    static float sweepBox(float x, float y, float w, float h, float r,
+            float px, float py, float dx, float dy, Vector2F n) {
+        float x0 = x - r;
+        float x1 = x + w + r;
+        float y0 = y - r;
+        float y1 = y + h + r;
+        
+        if(px > x0 && px < x1 && py > y0 && py < y1) {
+            float ox = px - clamp(px, x, x + w);
+            float oy = py - clamp(py, y, y + h);
+            if(ox * ox + oy * oy < r * r) {
+                if(ox == 0 && oy == 0) {
+                    float left = px - x;
+                    float right = x + w - px;
+                    float top = py - y;
+                    float bottom = y + h - py;
+                    float min = Math.min(Math.min(left, right), Math.min(top, bottom));
+                    if(min == left) {
+                        ox = -1;
+                    } else if(min == right) {
+                        ox = 1;
+                    } else if(min == top) {
+                        oy = -1;
+                    } else {
+                        oy = 1;
+                    }
+                }
+                if(ox * dx + oy * dy < 0) {
+                    n.set(ox, oy);
+                    n.normalize();
+                    return 0;
+                }
+                return NO_HIT;
+            }
+        }
+        
+        float tEnter = Float.NEGATIVE_INFINITY;
+        float tExit = Float.POSITIVE_INFINITY;
+        boolean xAxis = true;
+        if(dx != 0) {
+            float t1 = (x0 - px) / dx;
+            float t2 = (x1 - px) / dx;
+            tEnter = Math.min(t1, t2);
+            tExit = Math.max(t1, t2);
+        } else if(px <= x0 || px >= x1) {
+            return NO_HIT;
+        }
+        if(dy != 0) {
+            float t1 = (y0 - py) / dy;
+            float t2 = (y1 - py) / dy;
+            if(Math.min(t1, t2) > tEnter) {
+                tEnter = Math.min(t1, t2);
+                xAxis = false;
+            }
+            tExit = Math.min(tExit, Math.max(t1, t2));
+        } else if(py <= y0 || py >= y1) {
+            return NO_HIT;
+        }
+        if(tEnter > tExit || tExit < 0 || tEnter > 1) {
+            return NO_HIT;
+        }
+        tEnter = Math.max(0, tEnter);
+        
+        float qx = px + tEnter * dx;
+        float qy = py + tEnter * dy;
+        if((qx >= x && qx <= x + w) || (qy >= y && qy <= y + h)) {
+            if(xAxis) {
+                n.set(dx > 0 ? -1 : 1, 0);
+            } else {
+                n.set(0, dy > 0 ? -1 : 1);
+            }
+            return tEnter;
+        }
+        
+        float fx = px - (qx < x ? x : x + w);
+        float fy = py - (qy < y ? y : y + h);
+        float a = dx * dx + dy * dy;
+        float b = fx * dx + fy * dy;
+        float disc = b * b - a * (fx * fx + fy * fy - r * r);
+        if(disc < 0) {
+            return NO_HIT;
+        }
+        float t = (-b - (float) Math.sqrt(disc)) / a;
+        if(t < 0 || t > 1) {
+            return NO_HIT;
+        }
+        n.set(fx + t * dx, fy + t * dy);
+        n.normalize();
+        return t;
+    }
+    
     /**
      * Checks if the collisions ball and the rect are collided. This method
      * prepares the given collision object to resolve the collision.
@@ -141,13 +602,32 @@ public class BreakoutScene {
      * @param c 
      * @return Wheter the sprites are collided or not.
      */
-    private boolean ballVsRect(Rect r, Collision c) {
+    boolean ballVsRect(Rect r, Collision c) {
+        if(ballVsBox(r.position.x, r.position.y, r.width, r.height, c)) {
+            c.r = r;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Checks if the collisions ball and the given box are collided. This method
+     * prepares the normal of the given collision object.
+     * @param x The x-coordinate of the box.
+     * @param y The y-coordinate of the box.
+     * @param w The width of the box.
+     * @param h The height of the box.
+     * @param c The collision object.
+     * @return Wheter the ball and the box are collided or not.
+     */
+    private boolean ballVsBox(float x, float y, float w, float h, Collision c) {
         boolean res = false;
-        Vector2F difference = Vector2F.sub(r.center(), c.b.center());
-        Vector2F closest = new Vector2F();
-        
-        float x_extent = (r.highCorner().x - r.lowCorner().x) / 2;
-        float y_extent = (r.highCorner().y - r.lowCorner().y) / 2;
+        Vector2F difference = c.difference;
+        Vector2F closest = c.closest;
+        float x_extent = w / 2;
+        float y_extent = h / 2;
+        c.rectCenter.set(x + x_extent, y + y_extent);
+        Vector2F.sub(c.rectCenter, c.b.centerInto(c.ballCenter), difference);
         
         closest.setX(clamp(difference.x, -x_extent, x_extent));
         closest.setY(clamp(difference.y, -y_extent, y_extent));
@@ -167,12 +647,12 @@ public class BreakoutScene {
                 }
             }
         }
-        Vector2F n = Vector2F.sub(difference, closest);
+        float nx = difference.x - closest.x;
+        float ny = difference.y - closest.y;
         
-        if (n.lengthSquared() <= c.b.radius * c.b.radius) {
+        if (nx * nx + ny * ny <= c.b.radius * c.b.radius) {
             res = true;
-            c.r = r;
-            c.n = n;
+            c.n.set(nx, ny);
         }
         return res;
     }
@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Ball;
+import ch.windmill.breakout.model.BrickBatch;
+import ch.windmill.breakout.model.BrickStore;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.breakout.model.Paddle;
+import ch.windmill.engine.GameState;
+import ch.windmill.engine.RenderProfile;
+import ch.windmill.engine.RenderProfile.Layer;
+import ch.windmill.engine.Snapshot;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class holds the drawable state of a breakout game: the last and the current positions
+ * of the balls and the paddle and the live bits of the bricks. The arrays are reused by every
+ * write and only grow if a level has more balls. The live bits are only copied if a brick was
+ * destroyed or revived since the last write. The bricks are drawn with the bounds and types of
+ * the brick store, because they do not change while the game runs.
+ * @author Cyrill Jauner
+ */
+public class BreakoutSnapshot extends Snapshot {
+    
+    private int numBalls;
+    private float[] ballX, ballY, ballLastX, ballLastY, ballRadius;
+    private Color[] ballColor;
+    private float paddleX, paddleY, paddleLastX, paddleLastY, paddleWidth, paddleHeight;
+    private Color paddleColor;
+    private BrickStore bricks;
+    private int bricksModCount;
+    private final BitSet live;
+    private final Ellipse2D.Float ellipse;
+    private final Rectangle2D.Float rectangle;
+    
+    /**
+     * Creates a new empty BreakoutSnapshot object.
+     */
+    public BreakoutSnapshot() {
+        numBalls = 0;
+        ballX = new float[1];
+        ballY = new float[1];
+        ballLastX = new float[1];
+        ballLastY = new float[1];
+        ballRadius = new float[1];
+        ballColor = new Color[1];
+        bricks = null;
+        live = new BitSet();
+        ellipse = new Ellipse2D.Float();
+        rectangle = new Rectangle2D.Float();
+    }
+    
+    /**
+     * Writes the state of a level into this snapshot.
+     * @param level The level to write.
+     */
+    void write(Level level) {
+        numBalls = level.getBalls().size();
+        if(numBalls > ballX.length) {
+            ballX = Arrays.copyOf(ballX, numBalls);
+            ballY = Arrays.copyOf(ballY, numBalls);
+            ballLastX = Arrays.copyOf(ballLastX, numBalls);
+            ballLastY = Arrays.copyOf(ballLastY, numBalls);
+            ballRadius = Arrays.copyOf(ballRadius, numBalls);
+            ballColor = Arrays.copyOf(ballColor, numBalls);
+        }
+        for(int i = 0; i < numBalls; i++) {
+            Ball ball = level.getBalls().get(i);
+            ballX[i] = ball.position.x;
+            ballY[i] = ball.position.y;
+            ballLastX[i] = ball.lastPosition.x;
+            ballLastY[i] = ball.lastPosition.y;
+            ballRadius[i] = ball.radius;
+            ballColor[i] = ball.getColor();
+        }
+        
+        Paddle paddle = level.getPaddle();
+        paddleX = paddle.position.x;
+        paddleY = paddle.position.y;
+        paddleLastX = paddle.lastPosition.x;
+        paddleLastY = paddle.lastPosition.y;
+        paddleWidth = paddle.width;
+        paddleHeight = paddle.height;
+        paddleColor = paddle.getColor();
+        
+        BrickStore store = level.getBrickStore();
+        if(store != bricks || store.getModCount() != bricksModCount) {
+            store.copyLiveTo(live);
+            bricks = store;
+            bricksModCount = store.getModCount();
+        }
+    }
+    
+    /**
+     * Draws this snapshot. The balls and the paddle are drawn between their last and their
+     * current position, like Ball.draw and Rect.draw do.
+     * @param state The state with the interpolation.
+     * @param brickBatch The batch of the render thread to draw the bricks.
+     * @param g2 The graphics context.
+     */
+    void draw(GameState state, BrickBatch brickBatch, Graphics2D g2) {
+        RenderProfile profile = state.getRenderProfile();
+        if(bricks != null) {
+            profile.apply(Layer.RECTS, g2);
+            brickBatch.draw(bricks, live, bricksModCount, g2);
+        }
+        profile.apply(Layer.SHAPES, g2);
+        for(int i = 0; i < numBalls; i++) {
+            ellipse.x = (ballX[i] - ballLastX[i]) * state.interpolate + ballLastX[i];
+            ellipse.y = (ballY[i] - ballLastY[i]) * state.interpolate + ballLastY[i];
+            ellipse.width = 2 * ballRadius[i];
+            ellipse.height = 2 * ballRadius[i];
+            g2.setColor(ballColor[i]);
+            g2.fill(ellipse);
+        }
+        profile.apply(Layer.RECTS, g2);
+        rectangle.x = (paddleX - paddleLastX) * state.interpolate + paddleLastX;
+        rectangle.y = (paddleY - paddleLastY) * state.interpolate + paddleLastY;
+        rectangle.width = paddleWidth;
+        rectangle.height = paddleHeight;
+        g2.setColor(paddleColor);
+        g2.fill(rectangle);
+    }
+}
@@ -30,23 +30,75 @@ import ch.windmill.engine.core.Vector2F;
 import java.awt.geom.Rectangle2D;
 
 /**
- * This class represents a collision between a rect and a ball.
+ * This class represents a collision between a ball and a rect or a brick of the brick store.
  * @author Cyrill Jauner
  */
-public class Collision {
+@SuppressWarnings("strictfp") // The build targets Java 8, where strictfp keeps float results identical on all JVMs.
+public strictfp class Collision {
     
     public Rect r;
     public Ball b;
     public Vector2F n;
     
+    /**
+     * The index of the collided brick in the brick store or -1 if no brick is collided.
+     */
+    public int brick;
+    
+    /**
+     * Wheter the ball hit the ground of the boundary.
+     */
+    public boolean ground;
+    
+    /**
+     * The max number of hits of a ball in one swept step.
+     */
+    public static final int MAX_HITS = 4;
+    
+    /**
+     * The indices of the bricks that were hit in a swept step, in the order of the hits.
+     */
+    public final int[] hits;
+    public int numHits;
+    
+    /**
+     * Wheter the paddle was hit in a swept step.
+     */
+    public boolean paddleHit;
+    
+    /**
+     * Scratch vectors of the collision detection. Every collision object has its own
+     * vectors, so several balls can be checked at the same time.
+     */
+    final Vector2F rectCenter, ballCenter, difference, closest;
+    
     /**
      * Creates a new Collision object.
      * @param b 
      */
     public Collision(Ball b) {
+        n = new Vector2F();
+        rectCenter = new Vector2F();
+        ballCenter = new Vector2F();
+        difference = new Vector2F();
+        closest = new Vector2F();
+        hits = new int[MAX_HITS];
+        set(b);
+    }
+    
+    /**
+     * Prepares this collision object for the given ball. This method allows to reuse
+     * a collision object for several balls.
+     * @param b The ball to check.
+     */
+    public final void set(Ball b) {
         this.b = b;
         r = null;
-        n = null;
+        brick = -1;
+        ground = false;
+        numHits = 0;
+        paddleHit = false;
+        n.set(0, 0);
     }
     
     /**
@@ -60,13 +112,31 @@ public class Collision {
         }
     }
     
+    /**
+     * Reflects the velocity of the ball at the normal. An axis-aligned normal flips one
+     * component of the velocity, like resolveBrickCollision does. The normal must have
+     * a length of 1.
+     */
+    public void reflect() {
+        if (n.x == 0.0) {
+            b.velocity.mulY(-1);
+        } else if (n.y == 0.0) {
+            b.velocity.mulX(-1);
+        } else {
+            float d = 2 * (b.velocity.x * n.x + b.velocity.y * n.y);
+            b.velocity.set(b.velocity.x - d * n.x, b.velocity.y - d * n.y);
+        }
+    }
+    
     /**
      * Handles collision between a ball and a paddle.
      */
     public void resolvePaddleCollision() {
         Vector2F section = ((Paddle) r).getSection(b.position.x);
-        float speed = b.velocity.length();
-        b.velocity = Vector2F.multiply(section, speed);
+        if(section != null) {
+            float speed = b.velocity.length();
+            b.velocity.set(section.x * speed, section.y * speed);
+        }
     }
     
     /**
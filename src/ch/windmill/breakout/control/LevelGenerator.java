@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Brick.BrickType;
+import ch.windmill.breakout.model.BrickStore;
+import ch.windmill.breakout.model.LevelTemplate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * This class generates random levels, e.g. for load tests and benchmarks. The levels of a
+ * generator depend only on its seed, its settings and the number of the level, so the same
+ * level can be generated again on another host. The density is the chance that a cell has a
+ * brick, the weights define the chance of each BrickType. The bricks never cover more than
+ * the upper half of the level.
+ * @author Cyrill Jauner
+ */
+public class LevelGenerator {
+    
+    /**
+     * The prefix of the keys of generated levels.
+     */
+    public static final String KEY_PREFIX = "generated ";
+    
+    private final long seed;
+    private int cols, rows;
+    private double density;
+    private final double[] typeWeights;
+    
+    /**
+     * Creates a new LevelGenerator object with a grid of 10 x 10 cells, a density of 0.8 and
+     * the same weight for every BrickType.
+     * @param seed The seed of the random numbers.
+     */
+    public LevelGenerator(long seed) {
+        this.seed = seed;
+        cols = 10;
+        rows = 10;
+        density = 0.8;
+        typeWeights = new double[BrickStore.numTypes()];
+        Arrays.fill(typeWeights, 1);
+    }
+    
+    /**
+     * Sets the size of the brick grid.
+     * @param cols The number of bricks in a row.
+     * @param rows The number of rows.
+     * @return This generator.
+     */
+    public LevelGenerator setGridSize(int cols, int rows) {
+        if(cols <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Invalid grid size: "+cols+" x "+rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        return this;
+    }
+    
+    /**
+     * Sets the chance that a cell has a brick.
+     * @param density The density between 0 and 1.
+     * @return This generator.
+     */
+    public LevelGenerator setDensity(double density) {
+        if(density < 0 || density > 1) {
+            throw new IllegalArgumentException("Invalid density: "+density);
+        }
+        this.density = density;
+        return this;
+    }
+    
+    /**
+     * Sets the weight of a BrickType. The chance of a type is its weight divided by the sum
+     * of all weights.
+     * @param type The BrickType.
+     * @param weight The weight, 0 to never generate the type.
+     * @return This generator.
+     */
+    public LevelGenerator setTypeWeight(BrickType type, double weight) {
+        if(weight < 0) {
+            throw new IllegalArgumentException("Invalid weight: "+weight);
+        }
+        typeWeights[type.ordinal()] = weight;
+        return this;
+    }
+    
+    /**
+     * Generates a level template.
+     * @param index The number of the level. Every number is a different level.
+     * @param levelWidth The width of the level in pixels.
+     * @param levelHeight The height of the level in pixels.
+     * @return A new level template.
+     */
+    public LevelTemplate generate(int index, int levelWidth, int levelHeight) {
+        double[] cumulative = new double[typeWeights.length];
+        double sum = 0;
+        for(int i = 0; i < typeWeights.length; i++) {
+            sum += typeWeights[i];
+            cumulative[i] = sum;
+        }
+        if(sum <= 0) {
+            throw new IllegalStateException("All type weights are 0");
+        }
+        double totalWeight = sum;
+        int numCols = cols;
+        int numRows = rows;
+        double cellDensity = density;
+        float brickWidth = (float) levelWidth / numCols;
+        float brickHeight = Math.min(brickWidth * 0.5f, levelHeight * 0.5f / numRows);
+        SplittableRandom random = new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L);
+        
+        return LevelTemplate.build(brickWidth, brickHeight, levelWidth, levelHeight, level -> {
+            level.createGrid(numCols, numRows);
+            for(int row = 0; row < numRows; row++) {
+                for(int col = 0; col < numCols; col++) {
+                    if(random.nextDouble() < cellDensity) {
+                        level.addBrick(col, row, pickType(random.nextDouble() * totalWeight, cumulative));
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * Gets the BrickType of a random value.
+     * @param value A random value between 0 and the sum of all weights.
+     * @param cumulative The cumulative weights of the types.
+     * @return The BrickType.
+     */
+    private static BrickType pickType(double value, double[] cumulative) {
+        for(int i = 0; i < cumulative.length - 1; i++) {
+            if(value < cumulative[i]) {
+                return BrickStore.typeOf(i);
+            }
+        }
+        return BrickStore.typeOf(cumulative.length - 1);
+    }
+    
+    /**
+     * Registers generated levels with the level manager. The levels get the keys
+     * "generated 1" to "generated count" and are generated on the first access.
+     * @param manager The level manager.
+     * @param count The number of levels.
+     * @param levelWidth The width of the levels in pixels.
+     * @param levelHeight The height of the levels in pixels.
+     */
+    public void register(LevelManager manager, int count, int levelWidth, int levelHeight) {
+        LevelGenerator copy = copy();
+        Map<String, Supplier<LevelTemplate>> sources = new LinkedHashMap<>();
+        for(int i = 1; i <= count; i++) {
+            int index = i;
+            sources.put(KEY_PREFIX+i, () -> copy.generate(index, levelWidth, levelHeight));
+        }
+        manager.registerAll(sources);
+    }
+    
+    /**
+     * Creates a generator with the same seed and settings.
+     * @return A copy of this generator.
+     */
+    private LevelGenerator copy() {
+        LevelGenerator copy = new LevelGenerator(seed);
+        copy.cols = cols;
+        copy.rows = rows;
+        copy.density = density;
+        System.arraycopy(typeWeights, 0, copy.typeWeights, 0, typeWeights.length);
+        return copy;
+    }
+}
@@ -23,24 +23,37 @@
  */
 package ch.windmill.breakout.control;
 
+import ch.windmill.breakout.exception.IllegalColorException;
 import ch.windmill.breakout.model.Ball;
+import ch.windmill.breakout.model.BrickColorTable;
 import ch.windmill.breakout.model.Level;
+import ch.windmill.breakout.model.LevelTemplate;
 import ch.windmill.breakout.model.Paddle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This class represents a manager for all breakout levels. The LevelManager has methods to load
- * levels from resource files.
+ * levels from resource files. The level files are only indexed at startup. Every level file is
+ * parsed into a LevelTemplate on the first access or by a parallel prefetch, the games play new
+ * Level instances of the templates. Every entry of the index holds its own template, so a new
+ * index replaces the sources and the templates of all levels with one volatile write.
  * @author Cyrill Jauner
  */
 public class LevelManager {
@@ -93,7 +106,9 @@ public class LevelManager {
     private static int INITIAL_BALL_ANGLE = 1;
     
     private String levelPath;
-    private HashMap<String, Level> levels;
+    private volatile Map<String, LevelEntry> index;
+    private volatile int levelWidth, levelHeight;
+    private volatile BrickColorTable colorTable;
     
     /**
      * Creates a new LevelManager object.
@@ -101,7 +116,16 @@ public class LevelManager {
      */
     public LevelManager(String levelPath) {
         this.levelPath = levelPath;
-        levels = new HashMap<>();
+        index = Collections.emptyMap();
+        colorTable = BrickColorTable.DEFAULT;
+    }
+    
+    /**
+     * Gets the number of bricks in a row of a level image.
+     * @return The number of bricks in a row.
+     */
+    static int numBricksXAxis() {
+        return NUM_BRICKS_X_AXIS;
     }
     
     /**
@@ -110,7 +134,7 @@ public class LevelManager {
      */
     public static Ball createInitBall() {
         Ball ball = new Ball(INITIAL_BALL_RADIUS, INITIAL_BALL_DAMAGE, 150, 150);
-        ball.velocity.set((float)Math.cos(INITIAL_BALL_ANGLE) * INITIAL_BALL_SPEED, (float)Math.sin(INITIAL_BALL_ANGLE) * INITIAL_BALL_SPEED);
+        ball.velocity.set((float)StrictMath.cos(INITIAL_BALL_ANGLE) * INITIAL_BALL_SPEED, (float)StrictMath.sin(INITIAL_BALL_ANGLE) * INITIAL_BALL_SPEED);
         return ball;
     }
     
@@ -127,10 +151,41 @@ public class LevelManager {
         return paddle;
     }
     
-    public HashMap<String, Level> getLevels() {
-        return levels;
+    /**
+     * Creates a new level template with the given image.
+     * @param img The level image.
+     * @param levelWidth The width of the level in pixels.
+     * @param levelHeight The height of the level in pixels.
+     * @return A new level template.
+     */
+    public static LevelTemplate createTemplate(BufferedImage img, int levelWidth, int levelHeight) {
+        return LevelTemplate.fromImage(img, levelWidth, levelHeight, NUM_BRICKS_X_AXIS);
+    }
+    
+    /**
+     * Creates a new level of the template with the given key. Every invocation returns a new
+     * level object, so a game can change its level without affecting other games.
+     * @param lvlKey The key of a level.
+     * @return A new level with an initial paddle and ball or null if there is no such level.
+     */
+    public Level createLevel(String lvlKey) {
+        LevelTemplate template = getTemplate(lvlKey);
+        return template != null ? template.instantiate() : null;
     }
 
+    public BrickColorTable getColorTable() {
+        return colorTable;
+    }
+    
+    /**
+     * Sets the table that maps the pixels of level images to BrickTypes. The table is used
+     * for templates that are built after this invocation.
+     * @param colorTable The color table.
+     */
+    public void setColorTable(BrickColorTable colorTable) {
+        this.colorTable = colorTable;
+    }
+    
     public String getLevelPath() {
         return levelPath;
     }
@@ -140,63 +195,199 @@ public class LevelManager {
     }
     
     /**
-     * Returns an array that contains all keys of the level map. The returned
+     * Returns an array that contains all keys of the level index. The returned
      * array sorted.
      * @return Array with key values.
      */
     public String[] getLevelKeys() {
-        Set<String> keySet = levels.keySet();
-        String[] lvlKeys = new String[keySet.size()];
-        Iterator<String> it = keySet.iterator();
-        
-        for(int i = 0; i < lvlKeys.length; i++) {
-            lvlKeys[i] = it.next();
-        }
+        Set<String> keySet = index.keySet();
+        String[] lvlKeys = keySet.toArray(new String[keySet.size()]);
         Arrays.sort(lvlKeys);
         
         return lvlKeys;
     }
     
     /**
-     * Loads all levels from the levelPath directory. This method creates a new level object
-     * for each level file in the levelPath directory and adds it to the level List.
+     * Indexes all level files in the levelPath directory. The files are sorted by their path,
+     * the n-th level gets the key "level n". A level pack adds all of its levels in the
+     * order of the pack. This method does not read the level images and only maps the
+     * directory of a pack, a level is built on the first access or by a prefetch.
      * @param levelWidth The width of the level in pixels.
      * @param levelHeight The height of the level in pixels.
      */
-    public void loadLevels(int levelWidth, int levelHeight) {
+    public synchronized void loadLevels(int levelWidth, int levelHeight) {
+        this.levelWidth = levelWidth;
+        this.levelHeight = levelHeight;
         try {
-            List<BufferedImage> lvlList = getLevelImgs();
-            for(int i = 0; i < lvlList.size(); i++) {
-                Level level = Level.loadFromImage(lvlList.get(i), levelWidth, levelHeight, NUM_BRICKS_X_AXIS);
-                level.setPaddle(createInitPaddle(levelWidth, levelHeight));
-                level.addBall(createInitBall());
-                levels.put("level "+(i+1), level);
+            Map<String, LevelEntry> lvlIndex = new LinkedHashMap<>();
+            for(Path path : listLevelFiles(levelPath)) {
+                if(path.toString().endsWith(LevelPack.EXTENSION)) {
+                    indexPack(lvlIndex, path);
+                } else {
+                    lvlIndex.put("level "+(lvlIndex.size()+1), new LevelEntry(() -> loadTemplate(path)));
+                }
             }
+            index = Collections.unmodifiableMap(lvlIndex);
         } catch (IOException ex) {
             ex.printStackTrace();
         }
     }
     
     /**
-     * Gets a list with images of all level files in the levelPath directory. This method
-     * creates a BufferedImage of every file in the levelPath directory.
-     * @return A list with level images.
-     * @throws If a image could not be loaded.
+     * Registers a level that is not loaded from the level directory, e.g. a generated level.
+     * The template is built on the first access. A level with the same key is replaced. The
+     * loadLevels method removes all registered levels.
+     * @param lvlKey The key of the level.
+     * @param source Builds the template of the level.
+     */
+    public void register(String lvlKey, Supplier<LevelTemplate> source) {
+        registerAll(Collections.singletonMap(lvlKey, source));
+    }
+    
+    /**
+     * Registers many levels that are not loaded from the level directory. The index is
+     * copied once for all levels and not once per level. The levels are added in the
+     * iteration order of the map.
+     * @param sources The sources of the templates by level key.
+     * @see #register(String, Supplier)
+     */
+    public synchronized void registerAll(Map<String, Supplier<LevelTemplate>> sources) {
+        Map<String, LevelEntry> lvlIndex = new LinkedHashMap<>(index);
+        for(Map.Entry<String, Supplier<LevelTemplate>> source : sources.entrySet()) {
+            lvlIndex.put(source.getKey(), new LevelEntry(source.getValue()));
+        }
+        index = Collections.unmodifiableMap(lvlIndex);
+    }
+    
+    /**
+     * Gets the template of the level with the given key. The template is built on the first
+     * invocation, concurrent invocations for the same key wait for it and get the same
+     * template. An invocation that runs while the level is replaced gets the old or the new
+     * template, but the old template is never cached for the new level.
+     * @param lvlKey The key of a level.
+     * @return The template or null if there is no such level or it could not be loaded.
      */
-    private List<BufferedImage> getLevelImgs() throws IOException {
-        List<BufferedImage> imgStack = new ArrayList<>();
+    public LevelTemplate getTemplate(String lvlKey) {
+        LevelEntry entry = index.get(lvlKey);
+        return entry != null ? entry.getTemplate() : null;
+    }
+    
+    /**
+     * Builds the templates of all indexed levels in parallel on the common pool.
+     * @return A future that completes when all templates are built.
+     */
+    public CompletableFuture<Void> prefetch() {
+        return prefetch(ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Builds the templates of all indexed levels in parallel.
+     * @param executor The executor that builds the templates.
+     * @return A future that completes when all templates are built.
+     */
+    public CompletableFuture<Void> prefetch(Executor executor) {
+        Set<String> keySet = index.keySet();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[keySet.size()];
+        int i = 0;
+        for(String lvlKey : keySet) {
+            futures[i++] = CompletableFuture.runAsync(() -> getTemplate(lvlKey), executor);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+    
+    /**
+     * Adds the levels of a pack file to the index. The pack is mapped into memory and its
+     * levels are built from the mapped buffer.
+     * @param lvlIndex The index to add the levels to.
+     * @param path The path of the pack file.
+     */
+    private void indexPack(Map<String, LevelEntry> lvlIndex, Path path) {
+        try {
+            LevelPack pack = LevelPack.open(path);
+            for(int i = 0; i < pack.getNumLevels(); i++) {
+                int level = i;
+                lvlIndex.put("level "+(lvlIndex.size()+1), new LevelEntry(() -> pack.createTemplate(level, levelWidth, levelHeight)));
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+    
+    /**
+     * Decodes a level file band by band and builds its template.
+     * @param path The path of the level file.
+     * @return The template or null if the file could not be loaded.
+     */
+    private LevelTemplate loadTemplate(Path path) {
+        try {
+            return new LevelStreamBuilder(levelWidth, levelHeight, NUM_BRICKS_X_AXIS).setColors(colorTable).build(path);
+        } catch (IOException | IllegalColorException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * Gets the paths of all files in a level directory, sorted by path.
+     * @param levelPath The path to the level directory.
+     * @return A sorted list with level files.
+     * @throws IOException If the directory could not be read.
+     */
+    static List<Path> listLevelFiles(String levelPath) throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get(levelPath))) {
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * An entry of the level index. The entry builds the template of its level on the first
+     * access. The first invocation builds the template outside of any lock, concurrent
+     * invocations wait for its future. A template that could not be built is not kept, so
+     * the next access tries again.
+     */
+    private static class LevelEntry {
+        
+        private final Supplier<LevelTemplate> source;
+        private final AtomicReference<CompletableFuture<LevelTemplate>> template;
         
-        Files.walk(Paths.get(levelPath)).forEach(filePath -> {
-            if (Files.isRegularFile(filePath)) {
-                try {
-                    BufferedImage img = ImageIO.read(filePath.toFile());
-                    imgStack.add(img);
-                } catch (IOException ex) {
-                    ex.printStackTrace();
+        LevelEntry(Supplier<LevelTemplate> source) {
+            this.source = source;
+            template = new AtomicReference<>();
+        }
+        
+        /**
+         * Gets the template of this level and builds it if necessary.
+         * @return The template or null if it could not be built.
+         */
+        LevelTemplate getTemplate() {
+            while(true) {
+                CompletableFuture<LevelTemplate> future = template.get();
+                if(future != null) {
+                    return future.join();
+                }
+                CompletableFuture<LevelTemplate> created = new CompletableFuture<>();
+                if(template.compareAndSet(null, created)) {
+                    return build(created);
                 }
             }
-        });
+        }
         
-        return imgStack;
+        /**
+         * Builds the template and completes the future of this entry with it.
+         * @param future The future of this entry.
+         * @return The template or null if it could not be built.
+         */
+        private LevelTemplate build(CompletableFuture<LevelTemplate> future) {
+            LevelTemplate built = null;
+            try {
+                built = source.get();
+                return built;
+            } finally {
+                if(built == null) {
+                    template.compareAndSet(future, null);
+                }
+                future.complete(built);
+            }
+        }
     }
 }
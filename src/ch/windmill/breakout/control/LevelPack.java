@@ -0,0 +1,283 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Brick.BrickType;
+import ch.windmill.breakout.model.BrickColorTable;
+import ch.windmill.breakout.model.BrickStore;
+import ch.windmill.breakout.model.LevelTemplate;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * This class represents a pack of levels in a compact binary format. A pack starts with a
+ * header that holds the magic number, the format version and the number of levels. A
+ * directory follows with the number of columns and rows and the offset of the type grid of
+ * every level. A type grid stores one cell in four bits, 0 is an empty cell and n is a brick
+ * with the BrickType ordinal n - 1. Two cells are packed into a byte, the first one in the
+ * low bits. A pack file is memory-mapped, so the levels are built straight from the mapped
+ * buffer without decoding images.
+ * @author Cyrill Jauner
+ */
+public class LevelPack {
+    
+    /**
+     * The file extension of a level pack.
+     */
+    public static final String EXTENSION = ".bkl";
+    
+    /**
+     * The magic number at the start of a pack.
+     */
+    static final int MAGIC = 0x424B4C50;
+    
+    /**
+     * The version of the pack format.
+     */
+    static final int VERSION = 1;
+    
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 8;
+    private static final int EMPTY = 0;
+    
+    /**
+     * The max number of columns or rows of a level. Both are stored as unsigned shorts.
+     */
+    private static final int MAX_GRID_LENGTH = 0xFFFF;
+    
+    private final ByteBuffer buffer;
+    private final int numLevels;
+    
+    /**
+     * Creates a new LevelPack object that reads the levels from the buffer.
+     * @param buffer The buffer with the pack data.
+     * @throws IOException The buffer does not contain a valid pack.
+     */
+    public LevelPack(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.duplicate();
+        if(this.buffer.remaining() < HEADER_SIZE || this.buffer.getInt(0) != MAGIC) {
+            throw new IOException("No level pack");
+        }
+        if(this.buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported level pack version: "+this.buffer.getInt(4));
+        }
+        numLevels = this.buffer.getInt(8);
+        if(numLevels < 0 || HEADER_SIZE + (long) numLevels * ENTRY_SIZE > this.buffer.limit()) {
+            throw new IOException("Corrupt level pack directory");
+        }
+        for(int i = 0; i < numLevels; i++) {
+            if(getOffset(i) < 0 || getOffset(i) + gridSize(getCols(i), getRows(i)) > this.buffer.limit()) {
+                throw new IOException("Corrupt level pack entry: "+i);
+            }
+        }
+    }
+    
+    /**
+     * Opens a pack file. The file is mapped into memory, the mapping stays valid after the
+     * file is closed.
+     * @param path The path of the pack file.
+     * @return The level pack.
+     * @throws IOException The file could not be read or is not a valid pack.
+     */
+    public static LevelPack open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new LevelPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    public int getNumLevels() {
+        return numLevels;
+    }
+    
+    /**
+     * Gets the number of bricks in a row of a level.
+     * @param level The index of the level in this pack.
+     * @return The number of columns.
+     */
+    public int getCols(int level) {
+        return buffer.getShort(HEADER_SIZE + level * ENTRY_SIZE) & 0xFFFF;
+    }
+    
+    /**
+     * Gets the number of rows of a level.
+     * @param level The index of the level in this pack.
+     * @return The number of rows.
+     */
+    public int getRows(int level) {
+        return buffer.getShort(HEADER_SIZE + level * ENTRY_SIZE + 2) & 0xFFFF;
+    }
+    
+    private int getOffset(int level) {
+        return buffer.getInt(HEADER_SIZE + level * ENTRY_SIZE + 4);
+    }
+    
+    /**
+     * Gets the type of a cell.
+     * @param level The index of the level in this pack.
+     * @param col The column of the cell.
+     * @param row The row of the cell.
+     * @return The BrickType or null if the cell is empty.
+     */
+    public BrickType getType(int level, int col, int row) {
+        int code = getCode(getOffset(level), (long) row * getCols(level) + col);
+        return code == EMPTY ? null : BrickStore.typeOf(code - 1);
+    }
+    
+    /**
+     * Creates the template of a level. The size of the bricks is calculated like for a level
+     * image.
+     * @param level The index of the level in this pack.
+     * @param levelWidth The width of the level in pixels.
+     * @param levelHeight The height of the level in pixels.
+     * @return A new level template.
+     * @throws IllegalArgumentException A cell has an unknown BrickType.
+     */
+    public LevelTemplate createTemplate(int level, int levelWidth, int levelHeight) {
+        int cols = getCols(level);
+        int rows = getRows(level);
+        int offset = getOffset(level);
+        float brickWidth = (float) levelWidth / cols;
+        float brickHeight = brickWidth * 0.5f;
+        
+        long numCells = (long) cols * rows;
+        
+        return LevelTemplate.build(brickWidth, brickHeight, levelWidth, levelHeight, lvl -> {
+            lvl.createGrid(cols, rows);
+            for(long cell = 0; cell < numCells; cell++) {
+                int code = getCode(offset, cell);
+                if(code != EMPTY) {
+                    if(code > BrickStore.numTypes()) {
+                        throw new IllegalArgumentException("Unknown brick type: "+(code - 1));
+                    }
+                    lvl.addBrick((int) (cell % cols), (int) (cell / cols), BrickStore.typeOf(code - 1));
+                }
+            }
+        });
+    }
+    
+    private int getCode(int offset, long cell) {
+        int b = buffer.get((int) (offset + cell / 2));
+        return (cell % 2 == 0 ? b : b >> 4) & 0xF;
+    }
+    
+    private static long gridSize(int cols, int rows) {
+        return ((long) cols * rows + 1) / 2;
+    }
+    
+    /**
+     * Writes a pack with the given levels. Every level is given as rgb values, like the pixels
+     * of a level image. White values are empty cells, unknown colors are standard bricks.
+     * @param out The stream to write to.
+     * @param rgbLevels The rgb values of every level.
+     * @param numBricksXAxis The number of bricks in a row.
+     * @throws IOException The pack could not be written.
+     * @throws IllegalArgumentException A level has more than 65535 columns or rows, or the
+     * pack is larger than 2 GB.
+     */
+    public static void write(OutputStream out, List<int[]> rgbLevels, int numBricksXAxis) throws IOException {
+        if(numBricksXAxis < 1 || numBricksXAxis > MAX_GRID_LENGTH) {
+            throw new IllegalArgumentException("Invalid number of bricks in a row: "+numBricksXAxis);
+        }
+        long[] offsets = new long[rgbLevels.size()];
+        long offset = HEADER_SIZE + (long) rgbLevels.size() * ENTRY_SIZE;
+        for(int i = 0; i < offsets.length; i++) {
+            int rows = rowsOf(rgbLevels.get(i), numBricksXAxis);
+            if(rows > MAX_GRID_LENGTH) {
+                throw new IllegalArgumentException("Level "+i+" has too many rows: "+rows);
+            }
+            offsets[i] = offset;
+            offset += gridSize(numBricksXAxis, rows);
+        }
+        if(offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Level pack is too large: "+offset+" bytes");
+        }
+        
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(rgbLevels.size());
+        for(int i = 0; i < offsets.length; i++) {
+            data.writeShort(numBricksXAxis);
+            data.writeShort(rowsOf(rgbLevels.get(i), numBricksXAxis));
+            data.writeInt((int) offsets[i]);
+        }
+        
+        for(int[] rgb : rgbLevels) {
+            byte[] grid = new byte[(int) gridSize(numBricksXAxis, rowsOf(rgb, numBricksXAxis))];
+            for(int cell = 0; cell < rgb.length; cell++) {
+                grid[cell / 2] |= codeOf(rgb[cell]) << (cell % 2 == 0 ? 0 : 4);
+            }
+            data.write(grid);
+        }
+        data.flush();
+    }
+    
+    /**
+     * Gets the number of rows of a level. The last row may be incomplete.
+     * @param rgb The rgb values of the level.
+     * @param numBricksXAxis The number of bricks in a row.
+     * @return The number of rows.
+     */
+    private static int rowsOf(int[] rgb, int numBricksXAxis) {
+        return (int) (((long) rgb.length + numBricksXAxis - 1) / numBricksXAxis);
+    }
+    
+    private static int codeOf(int rgb) {
+        BrickType type = BrickColorTable.DEFAULT.lookup(rgb);
+        return type == null ? EMPTY : type.ordinal() + 1;
+    }
+    
+    /**
+     * Converts the level images of a directory to a level pack. The arguments are the level
+     * directory and the pack file. The images are sorted by their path, like the levels of
+     * a LevelManager.
+     * @param args The command line arguments.
+     * @throws IOException The images could not be read or the pack could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        List<int[]> rgbLevels = new ArrayList<>();
+        for(Path path : LevelManager.listLevelFiles(args[0])) {
+            BufferedImage img = ImageIO.read(path.toFile());
+            if(img != null) {
+                rgbLevels.add(img.getRGB(0, 0, img.getWidth(), img.getHeight(), null, 0, img.getWidth()));
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(Paths.get(args[1]))) {
+            write(out, rgbLevels, LevelManager.numBricksXAxis());
+        }
+        System.out.println(rgbLevels.size()+" levels written to "+args[1]);
+    }
+}
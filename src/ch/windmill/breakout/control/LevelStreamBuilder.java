@@ -0,0 +1,191 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Brick.BrickType;
+import ch.windmill.breakout.model.BrickColorTable;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.breakout.model.LevelTemplate;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * This class builds level templates from images that are too large to decode at once. The
+ * image is read in bands of rows through an ImageReader. Every band is decoded into the same
+ * buffer image and its bricks are added to the level before the next band is read, so the
+ * memory for the pixels is bounded by the band size. Like a level image, the pixels are
+ * numbered row by row and wrap into rows of numBricksXAxis bricks.
+ * Image formats like PNG decode all rows up to a band again for every band. For very large
+ * levels, the LevelPack format is faster, its levels are built cell by cell from the mapped
+ * file.
+ * @author Cyrill Jauner
+ */
+public class LevelStreamBuilder {
+    
+    /**
+     * The default number of image rows in a band.
+     */
+    public static final int DEFAULT_BAND_ROWS = 256;
+    
+    private final int levelWidth, levelHeight;
+    private final int numBricksXAxis;
+    private BrickColorTable colors;
+    private int bandRows;
+    
+    /**
+     * Creates a new LevelStreamBuilder object.
+     * @param levelWidth The width of the level in pixels.
+     * @param levelHeight The height of the level in pixels.
+     * @param numBricksXAxis The number of bricks in a row or 0 for one brick per image column.
+     */
+    public LevelStreamBuilder(int levelWidth, int levelHeight, int numBricksXAxis) {
+        this.levelWidth = levelWidth;
+        this.levelHeight = levelHeight;
+        this.numBricksXAxis = numBricksXAxis;
+        colors = BrickColorTable.DEFAULT;
+        bandRows = DEFAULT_BAND_ROWS;
+    }
+    
+    /**
+     * Sets the table that maps the pixels to BrickTypes.
+     * @param colors The color table.
+     * @return This builder.
+     */
+    public LevelStreamBuilder setColors(BrickColorTable colors) {
+        this.colors = colors;
+        return this;
+    }
+    
+    /**
+     * Sets the number of image rows that are decoded at once.
+     * @param bandRows The number of rows of a band.
+     * @return This builder.
+     */
+    public LevelStreamBuilder setBandRows(int bandRows) {
+        this.bandRows = Math.max(1, bandRows);
+        return this;
+    }
+    
+    /**
+     * Builds the template of a level image file.
+     * @param path The path of the image file.
+     * @return A new level template.
+     * @throws IOException The image could not be read.
+     */
+    public LevelTemplate build(Path path) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            if(in == null) {
+                throw new IOException("Could not open level image: "+path);
+            }
+            return build(in);
+        }
+    }
+    
+    /**
+     * Builds the template of a level image. The stream is not closed.
+     * @param in The stream of the image.
+     * @return A new level template.
+     * @throws IOException The image could not be read.
+     */
+    public LevelTemplate build(ImageInputStream in) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if(!readers.hasNext()) {
+            throw new IOException("No level image");
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(in, false, true);
+            return build(reader);
+        } finally {
+            reader.dispose();
+        }
+    }
+    
+    /**
+     * Builds the template of the first image of a reader.
+     * @param reader The reader with an input.
+     * @return A new level template.
+     * @throws IOException The image could not be read.
+     */
+    private LevelTemplate build(ImageReader reader) throws IOException {
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        int cols = numBricksXAxis > 0 ? numBricksXAxis : width;
+        long numCells = (long) width * height;
+        int rows = (int) ((numCells + cols - 1) / cols);
+        int band = Math.min(bandRows, height);
+        float brickWidth = (float) levelWidth / cols;
+        float brickHeight = brickWidth * 0.5f;
+        
+        ImageReadParam param = reader.getDefaultReadParam();
+        BufferedImage buffer = reader.getImageTypes(0).next().createBufferedImage(width, band);
+        param.setDestination(buffer);
+        int[] rgb = new int[width * band];
+        
+        try {
+            return LevelTemplate.build(brickWidth, brickHeight, levelWidth, levelHeight, level -> {
+                level.createGrid(cols, rows);
+                for(int y = 0; y < height; y += band) {
+                    int bandHeight = Math.min(band, height - y);
+                    param.setSourceRegion(new Rectangle(0, y, width, bandHeight));
+                    try {
+                        reader.read(0, param);
+                    } catch(IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    buffer.getRGB(0, 0, width, bandHeight, rgb, 0, width);
+                    addBricks(level, rgb, width * bandHeight, (long) y * width, cols);
+                }
+            });
+        } catch(UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+    
+    /**
+     * Adds the bricks of a band to the level.
+     * @param level The level to add the bricks to.
+     * @param rgb The pixels of the band.
+     * @param length The number of pixels in the band.
+     * @param firstCell The number of the first pixel of the band in the image.
+     * @param cols The number of bricks in a row.
+     */
+    private void addBricks(Level level, int[] rgb, int length, long firstCell, int cols) {
+        for(int i = 0; i < length; i++) {
+            BrickType type = colors.lookup(rgb[i]);
+            if(type != null) {
+                long cell = firstCell + i;
+                level.addBrick((int) (cell % cols), (int) (cell / cols), type);
+            }
+        }
+    }
+}
@@ -33,7 +33,8 @@ import java.awt.geom.Ellipse2D;
  * This class represents a ball in the game.
  * @author Cyrill Jauner
  */
-public class Ball extends Sprite {
+@SuppressWarnings("strictfp") // The build targets Java 8, where strictfp keeps float results identical on all JVMs.
+public strictfp class Ball extends Sprite {
     
     private Ellipse2D.Float ellipse;
     private Color color;
@@ -69,6 +70,10 @@ public class Ball extends Sprite {
         this.radius = radius;
     }
 
+    public Color getColor() {
+        return color;
+    }
+
     public int getDamage() {
         return damage;
     }
@@ -82,10 +87,24 @@ public class Ball extends Sprite {
         return Vector2F.add(position, radius);
     }
 
+    @Override
+    public Vector2F centerInto(Vector2F out) {
+        out.set(position.x + radius, position.y + radius);
+        return out;
+    }
+
     @Override
     public void update(GameState state) {
-        lastPosition = Vector2F.copyOf(position);
-        position.add(Vector2F.multiply(velocity, state.seconds));
+        update(state.seconds);
+    }
+    
+    /**
+     * Moves this ball by its velocity for the given time.
+     * @param seconds The elapsed time in seconds.
+     */
+    public void update(float seconds) {
+        lastPosition.set(position);
+        position.addScaled(velocity, seconds);
     }
 
     @Override
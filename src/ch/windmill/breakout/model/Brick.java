@@ -24,17 +24,24 @@
 package ch.windmill.breakout.model;
 
 import ch.windmill.breakout.exception.IllegalColorException;
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 
 /**
  * This class represents a brick in the game. A brick is specialized rect with fields for
  * lifepoints and a brick-type enum. The brick-type defines the color and the start value
- * of lifepoints.
+ * of lifepoints. The lifepoints and the type of a level brick are held by a BrickStore, such
+ * a Brick object is a lightweight view of one brick in the store. A standalone brick holds
+ * them in its own fields.
  * @author Cyrill Jauner
  */
 public class Brick extends Rect {
+    private final BrickStore store;
+    private final int index;
+    
+    /**
+     * The lifepoints and the type of a standalone brick. They are not used by a view.
+     */
     private int lifePoints;
     private BrickType type;
     
@@ -55,6 +62,15 @@ public class Brick extends Rect {
         
         public Color getColor() { return color; }
         public int getLifePoints() { return lifePoints; }
+        
+        /**
+         * Gets the BrickType with the given color.
+         * @param c The color of a brick.
+         * @return The BrickType or null if no type has the given color.
+         */
+        public static BrickType forColor(Color c) {
+            return BrickColorTable.DEFAULT.find(c.getRGB());
+        }
     }
     
     /**
@@ -81,6 +97,8 @@ public class Brick extends Rect {
      */
     public Brick(Color c, float x, float y, float width, float height) {
         super(x, y, width, height);
+        store = null;
+        index = -1;
         try {
             initBrick(c);
         } catch(IllegalColorException ex) {
@@ -88,6 +106,17 @@ public class Brick extends Rect {
         }
     }
     
+    /**
+     * Creates a new Brick object that shows a brick of the given store.
+     * @param store The store that holds the brick.
+     * @param index The index of the brick in the store.
+     */
+    public Brick(BrickStore store, int index) {
+        super(store.getX(index), store.getY(index), store.getWidth(index), store.getHeight(index));
+        this.store = store;
+        this.index = index;
+    }
+    
     /**
      * Sets the type of this brick by the given color. The color determines the type and
      * the initial life points. If the color is not supported, this method sets the color
@@ -96,13 +125,7 @@ public class Brick extends Rect {
      * @throws IllegalColorException There is no type for the given color.
      */
     private void initBrick(Color c) throws IllegalColorException {
-        type = null;
-        for(BrickType bType : BrickType.values()) {
-            if(bType.getColor().equals(c)) {
-                type = bType;
-                break;
-            }
-        }
+        type = BrickType.forColor(c);
         if(type != null) {
             lifePoints = type.getLifePoints();
         } else {
@@ -114,21 +137,47 @@ public class Brick extends Rect {
     
     @Override
     public void drawRectangle(Graphics2D g2) {
-        g2.setColor(type.color);
+        g2.setColor(getColor());
         g2.fill(rectangle);
         g2.setColor(Color.black);
         g2.draw(rectangle);
     }
+    
+    /**
+     * Gets the store that holds this brick.
+     * @return The store or null if this is a standalone brick.
+     */
+    public BrickStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the index of this brick in its store.
+     * @return The index or -1 if this is a standalone brick.
+     */
+    public int getIndex() {
+        return index;
+    }
 
     public int getLifePoints() {
+        if(store != null) {
+            return store.getLifePoints(index);
+        }
         return lifePoints;
     }
 
     public void setLifePoints(int lifePoints) {
-        this.lifePoints = lifePoints;
+        if(store != null) {
+            store.setLifePoints(index, lifePoints);
+        } else {
+            this.lifePoints = lifePoints;
+        }
     }
     
     public Color getColor() {
+        if(store != null) {
+            return store.getType(index).getColor();
+        }
         return type.getColor();
     }
     
@@ -137,7 +186,11 @@ public class Brick extends Rect {
      * @param damage The number of lifepoints to reduce.
      */
     public void damage(int damage) {
-        lifePoints -= damage;
+        if(store != null) {
+            store.damage(index, damage);
+        } else {
+            lifePoints -= damage;
+        }
     }
     
     /**
@@ -145,13 +198,20 @@ public class Brick extends Rect {
      * @return Wheter this brick is destroyed or not.
      */
     public boolean isDestroyed() {
-        return (lifePoints <= 0);
+        if(store != null) {
+            return store.isDestroyed(index);
+        }
+        return lifePoints <= 0;
     }
     
     /**
      * Resets the lifepoints of this brick.
      */
     public void reset() {
-        lifePoints = type.getLifePoints();
+        if(store != null) {
+            store.reset(index);
+        } else {
+            lifePoints = type.getLifePoints();
+        }
     }
 }
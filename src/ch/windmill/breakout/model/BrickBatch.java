@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.model;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class draws the live bricks of a brick store in batches. The bricks are grouped by
+ * their BrickType, so a frame sets the color once per type and fills all bricks of the type,
+ * then it sets black once and draws the borders of all bricks. The batches are index lists
+ * that are only rebuilt if the bricks changed. Every brick is still drawn as a rectangle,
+ * because Java2D fills a rectangle faster than the same area of a long path. Bricks in a grid
+ * only touch at their borders, so a batch draws the same pixels as BrickStore.draw. Bricks
+ * that overlap are drawn differently, because all borders are drawn on top of all fills and
+ * BrickStore.draw fills each brick over the borders of the bricks before it.
+ * @author Cyrill Jauner
+ */
+public class BrickBatch {
+    
+    private final int[][] batches;
+    private final int[] batchSizes;
+    private final Rectangle2D.Float rectangle;
+    private BrickStore store;
+    private int modCount;
+    
+    /**
+     * Creates a new empty BrickBatch object.
+     */
+    public BrickBatch() {
+        int numTypes = BrickStore.numTypes();
+        batches = new int[numTypes][16];
+        batchSizes = new int[numTypes];
+        rectangle = new Rectangle2D.Float();
+        store = null;
+        modCount = 0;
+    }
+    
+    /**
+     * Removes all bricks, so the next draw rebuilds the batches.
+     */
+    public void invalidate() {
+        store = null;
+    }
+    
+    /**
+     * Draws the live bricks of a store. The batches are rebuilt if the bricks changed since
+     * the last draw.
+     * @param bricks The brick store.
+     * @param g2 The graphics context.
+     */
+    public void draw(BrickStore bricks, Graphics2D g2) {
+        if(bricks != store || bricks.getModCount() != modCount) {
+            clear();
+            for(int i = bricks.nextLive(0); i >= 0; i = bricks.nextLive(i + 1)) {
+                add(bricks, i);
+            }
+            store = bricks;
+            modCount = bricks.getModCount();
+        }
+        draw(g2);
+    }
+    
+    /**
+     * Draws the bricks of the given live set, e.g. a copy of the live bits of a store on
+     * another thread. The batches are rebuilt if the store or the mod count changed.
+     * @param bricks The brick store with the bounds and types of the bricks.
+     * @param live The bricks to draw.
+     * @param liveModCount The mod count of the store when the live set was copied.
+     * @param g2 The graphics context.
+     */
+    public void draw(BrickStore bricks, BitSet live, int liveModCount, Graphics2D g2) {
+        if(bricks != store || liveModCount != modCount) {
+            clear();
+            for(int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+                add(bricks, i);
+            }
+            store = bricks;
+            modCount = liveModCount;
+        }
+        draw(g2);
+    }
+    
+    /**
+     * Removes all bricks from the batches. The arrays are kept for the next rebuild.
+     */
+    private void clear() {
+        Arrays.fill(batchSizes, 0);
+    }
+    
+    /**
+     * Adds a brick to the batch of its type.
+     * @param bricks The brick store.
+     * @param i The index of the brick.
+     */
+    private void add(BrickStore bricks, int i) {
+        int t = bricks.getType(i).ordinal();
+        if(batchSizes[t] == batches[t].length) {
+            batches[t] = Arrays.copyOf(batches[t], 2 * batches[t].length);
+        }
+        batches[t][batchSizes[t]++] = i;
+    }
+    
+    /**
+     * Fills the bricks of every batch and draws the borders of all bricks. The borders are
+     * drawn after all fills, so no fill covers a border.
+     * @param g2 The graphics context.
+     */
+    private void draw(Graphics2D g2) {
+        for(int t = 0; t < batches.length; t++) {
+            if(batchSizes[t] > 0) {
+                g2.setColor(BrickStore.typeOf(t).getColor());
+                for(int k = 0; k < batchSizes[t]; k++) {
+                    setRectangle(batches[t][k]);
+                    g2.fill(rectangle);
+                }
+            }
+        }
+        g2.setColor(Color.black);
+        for(int t = 0; t < batches.length; t++) {
+            for(int k = 0; k < batchSizes[t]; k++) {
+                setRectangle(batches[t][k]);
+                g2.draw(rectangle);
+            }
+        }
+    }
+    
+    /**
+     * Sets the bounds of the rectangle to the bounds of a brick.
+     * @param i The index of the brick.
+     */
+    private void setRectangle(int i) {
+        rectangle.setRect(store.getX(i), store.getY(i), store.getWidth(i), store.getHeight(i));
+    }
+}
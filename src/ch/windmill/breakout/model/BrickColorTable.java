@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.model;
+
+import ch.windmill.breakout.exception.IllegalColorException;
+import ch.windmill.breakout.model.Brick.BrickType;
+import java.awt.Color;
+
+/**
+ * This class maps the colors of a level image to BrickTypes. The colors of all types are
+ * stored in a hash table with open addressing over primitive ints, so a lookup does not
+ * allocate anything. White pixels are empty cells. The policy of the table decides what an
+ * unknown color is. A table is immutable and can be shared by several threads.
+ * @author Cyrill Jauner
+ */
+public final class BrickColorTable {
+    
+    /**
+     * Defines how a color without a BrickType is handled.
+     */
+    public enum UnknownColorPolicy {
+        /**
+         * The color is a STANDARD brick.
+         */
+        DEFAULT,
+        /**
+         * The color is an empty cell.
+         */
+        SKIP,
+        /**
+         * The color is not allowed, the lookup throws an IllegalColorException.
+         */
+        FAIL
+    }
+    
+    /**
+     * The table with the DEFAULT policy.
+     */
+    public static final BrickColorTable DEFAULT = new BrickColorTable(UnknownColorPolicy.DEFAULT);
+    
+    /**
+     * The key of an unused slot. All keys have an alpha value of 255, so 0 is never a key.
+     */
+    private static final int FREE = 0;
+    private static final int OPAQUE = 0xFF000000;
+    private static final int WHITE = 0xFFFFFFFF;
+    
+    private final int[] keys;
+    private final BrickType[] values;
+    private final int shift;
+    private final UnknownColorPolicy policy;
+    
+    /**
+     * Creates a new BrickColorTable object with the colors of all BrickTypes.
+     * @param policy The policy for unknown colors.
+     */
+    public BrickColorTable(UnknownColorPolicy policy) {
+        this.policy = policy;
+        int capacity = Integer.highestOneBit(Math.max(4, BrickStore.numTypes() * 4 - 1));
+        keys = new int[capacity];
+        values = new BrickType[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        for(int i = 0; i < BrickStore.numTypes(); i++) {
+            BrickType type = BrickStore.typeOf(i);
+            int key = type.getColor().getRGB();
+            if(find(key) == null && key != WHITE) {
+                int slot = slotOf(key);
+                keys[slot] = key;
+                values[slot] = type;
+            }
+        }
+    }
+
+    public UnknownColorPolicy getPolicy() {
+        return policy;
+    }
+    
+    /**
+     * Gets the BrickType of a pixel. The alpha value of the pixel is ignored, like in the
+     * Color(int) constructor.
+     * @param rgb The rgb value of the pixel.
+     * @return The BrickType or null if the pixel is an empty cell.
+     * @throws IllegalColorException The color is unknown and the policy is FAIL.
+     */
+    public BrickType lookup(int rgb) {
+        int key = rgb | OPAQUE;
+        if(key == WHITE) {
+            return null;
+        }
+        BrickType type = find(key);
+        if(type != null) {
+            return type;
+        }
+        switch(policy) {
+            case SKIP:
+                return null;
+            case FAIL:
+                throw new IllegalColorException(new Color(rgb));
+            default:
+                return BrickType.STANDARD;
+        }
+    }
+    
+    /**
+     * Gets the BrickType with the given color.
+     * @param argb The argb value of the color.
+     * @return The BrickType or null if no type has the color.
+     */
+    public BrickType find(int argb) {
+        if(argb == FREE) {
+            return null;
+        }
+        return values[slotOf(argb)];
+    }
+    
+    /**
+     * Gets the slot of a key. The slot contains the key or is the free slot where the key
+     * would be stored.
+     * @param key The key.
+     * @return The index of the slot.
+     */
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> shift;
+        while(keys[slot] != key && keys[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
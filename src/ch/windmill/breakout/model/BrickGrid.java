@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.model;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a uniform grid over the bricks of a level. Every cell of the grid
+ * has the size of one brick and holds the index of the brick in the brick store that was
+ * generated for it. A destroyed brick is removed from its cell, so the grid only contains
+ * bricks that can collide.
+ * @author Cyrill Jauner
+ */
+public class BrickGrid {
+    
+    /**
+     * The value of a cell without a brick.
+     */
+    public static final int EMPTY = -1;
+    
+    private final float cellWidth, cellHeight;
+    private final int cols, rows;
+    private final int[] cells;
+    private int[] cellOf;
+    private boolean shared;
+    
+    /**
+     * Creates a new BrickGrid object without any bricks.
+     * @param cellWidth The width of a cell.
+     * @param cellHeight The height of a cell.
+     * @param cols The number of cells in a row.
+     * @param rows The number of cells in a column.
+     */
+    public BrickGrid(float cellWidth, float cellHeight, int cols, int rows) {
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.cols = cols;
+        this.rows = rows;
+        cells = new int[cols * rows];
+        cellOf = new int[16];
+        Arrays.fill(cells, EMPTY);
+        shared = false;
+    }
+    
+    /**
+     * Creates a new BrickGrid object with the cells of the template. The cells are copied,
+     * the cell of every brick is shared with the template until a brick is added. No brick
+     * must be added to the template after it was copied.
+     * @param template The grid to copy.
+     */
+    public BrickGrid(BrickGrid template) {
+        cellWidth = template.cellWidth;
+        cellHeight = template.cellHeight;
+        cols = template.cols;
+        rows = template.rows;
+        cells = template.cells.clone();
+        cellOf = template.cellOf;
+        shared = true;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+    
+    /**
+     * Gets the brick of the given cell.
+     * @param col The column of the cell.
+     * @param row The row of the cell.
+     * @return The index of the brick or EMPTY if the cell is empty.
+     */
+    public int get(int col, int row) {
+        return cells[row * cols + col];
+    }
+    
+    /**
+     * Adds the given brick to a cell of this grid.
+     * @param brick The index of the brick to add.
+     * @param col The column of the cell.
+     * @param row The row of the cell.
+     */
+    public void add(int brick, int col, int row) {
+        if(brick >= cellOf.length) {
+            cellOf = Arrays.copyOf(cellOf, Math.max(brick + 1, 2 * cellOf.length));
+            shared = false;
+        } else if(shared) {
+            cellOf = cellOf.clone();
+            shared = false;
+        }
+        cellOf[brick] = row * cols + col;
+        cells[cellOf[brick]] = brick;
+    }
+    
+    /**
+     * Removes the given brick from its cell. The brick stays assigned to its cell,
+     * so it can be restored on a reset.
+     * @param brick The index of a brick that was added to this grid.
+     */
+    public void remove(int brick) {
+        if(cells[cellOf[brick]] == brick) {
+            cells[cellOf[brick]] = EMPTY;
+        }
+    }
+    
+    /**
+     * Puts the given brick back into its cell. This method is invoked when a brick is reset.
+     * @param brick The index of a brick that was added to this grid.
+     */
+    public void restore(int brick) {
+        cells[cellOf[brick]] = brick;
+    }
+    
+    /**
+     * Gets the first column that overlaps the given x-coordinate.
+     * @param minX The lowest x-coordinate of an area.
+     * @return The column index. This value is never less than 0.
+     */
+    public int firstCol(float minX) {
+        return Math.max(0, (int) Math.floor(minX / cellWidth));
+    }
+    
+    /**
+     * Gets the last column that overlaps the given x-coordinate.
+     * @param maxX The highest x-coordinate of an area.
+     * @return The column index. This value is never greater than cols - 1.
+     */
+    public int lastCol(float maxX) {
+        return Math.min(cols - 1, (int) Math.floor(maxX / cellWidth));
+    }
+    
+    /**
+     * Gets the first row that overlaps the given y-coordinate.
+     * @param minY The lowest y-coordinate of an area.
+     * @return The row index. This value is never less than 0.
+     */
+    public int firstRow(float minY) {
+        return Math.max(0, (int) Math.floor(minY / cellHeight));
+    }
+    
+    /**
+     * Gets the last row that overlaps the given y-coordinate.
+     * @param maxY The highest y-coordinate of an area.
+     * @return The row index. This value is never greater than rows - 1.
+     */
+    public int lastRow(float maxY) {
+        return Math.min(rows - 1, (int) Math.floor(maxY / cellHeight));
+    }
+}
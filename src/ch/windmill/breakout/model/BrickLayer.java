@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.model;
+
+import ch.windmill.engine.GameState;
+import ch.windmill.engine.RenderProfile;
+import ch.windmill.engine.RenderProfile.Layer;
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * This class caches the bricks of a level in an offscreen image. All bricks are drawn into
+ * the image when a level is set or the layer is invalidated. After that, only the cells of
+ * destroyed bricks are cleared. A frame draws the image instead of every brick, so the draw
+ * cost does not depend on the number of bricks.
+ * @author Cyrill Jauner
+ */
+public class BrickLayer implements BrickListener {
+    
+    /**
+     * The margin around a cleared brick. The border of a brick is drawn on its edges and
+     * reaches into the neighbour cells.
+     */
+    private static final int MARGIN = 1;
+    
+    private final int width, height;
+    private BufferedImage image;
+    private Graphics2D g2;
+    private Level level;
+    private boolean invalid;
+    private RenderProfile profile;
+    private int[] dirty;
+    private int numDirty;
+    
+    /**
+     * Creates a new BrickLayer object.
+     * @param width The width of the layer in pixels.
+     * @param height The height of the layer in pixels.
+     */
+    public BrickLayer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        image = null;
+        g2 = null;
+        level = null;
+        invalid = true;
+        profile = null;
+        dirty = new int[16];
+        numDirty = 0;
+    }
+    
+    /**
+     * Sets the level to draw. The layer listens for destroyed bricks of the level.
+     * @param level The level to draw.
+     */
+    public void setLevel(Level level) {
+        if(this.level != null) {
+            this.level.removeBrickListener(this);
+        }
+        this.level = level;
+        if(level != null) {
+            level.addBrickListener(this);
+        }
+        invalidate();
+    }
+    
+    /**
+     * Marks the whole layer for a redraw. This method must be invoked if bricks are restored,
+     * e.g. when the level is reset.
+     */
+    public void invalidate() {
+        invalid = true;
+        numDirty = 0;
+    }
+
+    @Override
+    public void brickDestroyed(BrickStore store, int brick) {
+        if(invalid) {
+            return;
+        }
+        if(numDirty == dirty.length) {
+            dirty = Arrays.copyOf(dirty, 2 * dirty.length);
+        }
+        dirty[numDirty++] = brick;
+    }
+    
+    /**
+     * Draws the layer. Changes since the last frame are drawn into the cached image first.
+     * The bricks are drawn with the hints of the RECTS layer of the render profile, the whole
+     * layer is drawn again if the profile changed.
+     * @param state The current game state.
+     * @param g The graphics context of the frame.
+     */
+    public void draw(GameState state, Graphics2D g) {
+        if(image == null) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            g2 = image.createGraphics();
+            profile = null;
+        }
+        if(profile != state.getRenderProfile()) {
+            profile = state.getRenderProfile();
+            profile.apply(Layer.RECTS, g2);
+            invalidate();
+        }
+        if(level != null) {
+            if(invalid) {
+                redraw(state);
+            } else {
+                for(int i = 0; i < numDirty; i++) {
+                    clearBrick(dirty[i]);
+                }
+            }
+            numDirty = 0;
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+    
+    /**
+     * Clears the image and draws all live bricks.
+     * @param state The current game state.
+     */
+    private void redraw(GameState state) {
+        Composite composite = g2.getComposite();
+        g2.setComposite(AlphaComposite.Clear);
+        g2.fillRect(0, 0, width, height);
+        g2.setComposite(composite);
+        level.getBrickStore().draw(state, g2);
+        invalid = false;
+    }
+    
+    /**
+     * Clears the cell of a destroyed brick. The live bricks around the cell are drawn again
+     * inside the cleared area, so their borders stay complete.
+     * @param brick The index of the destroyed brick.
+     */
+    private void clearBrick(int brick) {
+        BrickStore store = level.getBrickStore();
+        int x = (int) Math.floor(store.getX(brick)) - MARGIN;
+        int y = (int) Math.floor(store.getY(brick)) - MARGIN;
+        int w = (int) Math.ceil(store.getX(brick) + store.getWidth(brick)) + MARGIN - x;
+        int h = (int) Math.ceil(store.getY(brick) + store.getHeight(brick)) + MARGIN - y;
+        
+        Composite composite = g2.getComposite();
+        g2.setComposite(AlphaComposite.Clear);
+        g2.fillRect(x, y, w, h);
+        g2.setComposite(composite);
+        
+        BrickGrid grid = level.getGrid();
+        if(grid != null) {
+            Shape clip = g2.getClip();
+            g2.clipRect(x, y, w, h);
+            int lastRow = grid.lastRow(y + h);
+            int lastCol = grid.lastCol(x + w);
+            for(int row = grid.firstRow(y); row <= lastRow; row++) {
+                for(int col = grid.firstCol(x); col <= lastCol; col++) {
+                    int neighbour = grid.get(col, row);
+                    if(neighbour != BrickGrid.EMPTY) {
+                        store.draw(neighbour, g2);
+                    }
+                }
+            }
+            g2.setClip(clip);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.model;
+
+import ch.windmill.breakout.model.Brick.BrickType;
+import ch.windmill.engine.GameState;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * This class stores the bricks of a level in parallel arrays. The brick with index i has its
+ * bounds in x[i], y[i], w[i], h[i], its lifepoints in lifePoints[i] and the ordinal of its
+ * BrickType in type[i]. A bitset marks the bricks that are not destroyed, so loops over the
+ * live bricks run linear through memory.
+ * @author Cyrill Jauner
+ */
+public class BrickStore {
+    
+    private static final BrickType[] TYPES = BrickType.values();
+    
+    private float[] x, y, w, h;
+    private int[] lifePoints;
+    private byte[] type;
+    private final BitSet live;
+    private int size;
+    private int liveCount;
+    
+    /**
+     * The number of changes of the drawn bricks. It is incremented when a brick is added,
+     * destroyed or revived or its type is changed.
+     */
+    private int modCount;
+    private BrickGrid grid;
+    private final List<BrickListener> listeners;
+    private final Rectangle2D.Float rectangle;
+    
+    /**
+     * Wheter the bounds and types are shared with a template store.
+     */
+    private boolean shared;
+    
+    /**
+     * Creates a new empty BrickStore object.
+     * @param capacity The initial number of bricks that fit into the store.
+     */
+    public BrickStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        x = new float[capacity];
+        y = new float[capacity];
+        w = new float[capacity];
+        h = new float[capacity];
+        lifePoints = new int[capacity];
+        type = new byte[capacity];
+        live = new BitSet(capacity);
+        size = 0;
+        liveCount = 0;
+        grid = null;
+        listeners = new ArrayList<>();
+        rectangle = new Rectangle2D.Float();
+        shared = false;
+    }
+    
+    /**
+     * Creates a new BrickStore object with the bricks of the template. The bounds and types
+     * of the bricks are shared with the template, only the lifepoints and live bits are
+     * copied. The shared arrays are copied before a brick is added or a type is changed, so
+     * the copy never changes the template. The bounds and types of the template must not be
+     * changed after it was copied. The grid and the listeners are not copied.
+     * @param template The store to copy.
+     */
+    public BrickStore(BrickStore template) {
+        x = template.x;
+        y = template.y;
+        w = template.w;
+        h = template.h;
+        type = template.type;
+        lifePoints = template.lifePoints.clone();
+        live = (BitSet) template.live.clone();
+        size = template.size;
+        liveCount = template.liveCount;
+        grid = null;
+        listeners = new ArrayList<>();
+        rectangle = new Rectangle2D.Float();
+        shared = true;
+    }
+    
+    /**
+     * Gets the BrickType with the given ordinal. This method does not clone the values array.
+     * @param ordinal The ordinal of a BrickType.
+     * @return The BrickType.
+     */
+    public static BrickType typeOf(int ordinal) {
+        return TYPES[ordinal];
+    }
+    
+    /**
+     * Gets the number of brick types.
+     * @return The number of brick types.
+     */
+    public static int numTypes() {
+        return TYPES.length;
+    }
+    
+    /**
+     * Sets the grid that is updated when a brick is destroyed or reset.
+     * @param grid The grid that contains the bricks of this store.
+     */
+    public void setGrid(BrickGrid grid) {
+        this.grid = grid;
+    }
+    
+    /**
+     * Adds a listener that is notified when a brick is destroyed.
+     * @param l The listener to add.
+     */
+    public void addBrickListener(BrickListener l) {
+        listeners.add(l);
+    }
+    
+    /**
+     * Removes the given listener.
+     * @param l The listener to remove.
+     */
+    public void removeBrickListener(BrickListener l) {
+        listeners.remove(l);
+    }
+    
+    /**
+     * Adds a new brick with the initial lifepoints of its type.
+     * @param x The x-coordinate of the brick.
+     * @param y The y-coordinate of the brick.
+     * @param width The width of the brick.
+     * @param height The height of the brick.
+     * @param bType The type of the brick.
+     * @return The index of the new brick.
+     */
+    public int add(float x, float y, float width, float height, BrickType bType) {
+        if(shared) {
+            unshare();
+        }
+        if(size == this.x.length) {
+            grow();
+        }
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        w[i] = width;
+        h[i] = height;
+        type[i] = (byte) bType.ordinal();
+        lifePoints[i] = bType.getLifePoints();
+        live.set(i);
+        liveCount++;
+        modCount++;
+        return i;
+    }
+    
+    /**
+     * Copies the arrays that are shared with another store.
+     */
+    private void unshare() {
+        x = x.clone();
+        y = y.clone();
+        w = w.clone();
+        h = h.clone();
+        type = type.clone();
+        shared = false;
+    }
+    
+    /**
+     * Doubles the capacity of all arrays.
+     */
+    private void grow() {
+        int capacity = 2 * x.length;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        w = Arrays.copyOf(w, capacity);
+        h = Arrays.copyOf(h, capacity);
+        lifePoints = Arrays.copyOf(lifePoints, capacity);
+        type = Arrays.copyOf(type, capacity);
+    }
+    
+    /**
+     * Gets the number of bricks in this store, destroyed bricks included.
+     * @return The number of bricks.
+     */
+    public int size() {
+        return size;
+    }
+    
+    public float getX(int i) {
+        return x[i];
+    }
+    
+    public float getY(int i) {
+        return y[i];
+    }
+    
+    public float getWidth(int i) {
+        return w[i];
+    }
+    
+    public float getHeight(int i) {
+        return h[i];
+    }
+    
+    public int getLifePoints(int i) {
+        return lifePoints[i];
+    }
+    
+    public BrickType getType(int i) {
+        return TYPES[type[i]];
+    }
+    
+    /**
+     * Sets the lifepoints of a brick. The brick is removed from the live bricks if the
+     * lifepoints are 0 or less, otherwise it is added.
+     * @param i The index of the brick.
+     * @param lp The new lifepoints.
+     */
+    public void setLifePoints(int i, int lp) {
+        lifePoints[i] = lp;
+        if(lp <= 0) {
+            destroy(i);
+        } else {
+            revive(i);
+        }
+    }
+    
+    /**
+     * Sets the type of a brick and resets its lifepoints.
+     * @param i The index of the brick.
+     * @param bType The new type.
+     */
+    public void setType(int i, BrickType bType) {
+        if(shared) {
+            unshare();
+        }
+        type[i] = (byte) bType.ordinal();
+        modCount++;
+        setLifePoints(i, bType.getLifePoints());
+    }
+    
+    /**
+     * Reduces the lifepoints of a brick by the given damage value.
+     * @param i The index of the brick.
+     * @param damage The number of lifepoints to reduce.
+     */
+    public void damage(int i, int damage) {
+        lifePoints[i] -= damage;
+        if(lifePoints[i] <= 0) {
+            destroy(i);
+        }
+    }
+    
+    /**
+     * Gets the number of bricks that are not destroyed. This method does not iterate
+     * over the bricks.
+     * @return The number of live bricks.
+     */
+    public int liveCount() {
+        return liveCount;
+    }
+    
+    /**
+     * Gets the number of changes of the drawn bricks. If the number did not change, the
+     * same bricks are live and have the same types.
+     * @return The number of changes.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+    
+    /**
+     * Copies the live bits of all bricks into the given set. The words of the set are
+     * copied, so the set does not allocate if it is large enough.
+     * @param target The set to copy to.
+     */
+    public void copyLiveTo(BitSet target) {
+        target.clear();
+        target.or(live);
+    }
+    
+    /**
+     * Wheter a brick is destroyed or not.
+     * @param i The index of the brick.
+     * @return Wheter the brick is destroyed or not.
+     */
+    public boolean isDestroyed(int i) {
+        return !live.get(i);
+    }
+    
+    /**
+     * Gets the index of the next brick that is not destroyed.
+     * @param from The index to start the search from.
+     * @return The index of the next live brick or -1 if there is no such brick.
+     */
+    public int nextLive(int from) {
+        return live.nextSetBit(from);
+    }
+    
+    /**
+     * Removes a brick from the live bricks and the grid and notifies all listeners.
+     * @param i The index of the brick.
+     */
+    private void destroy(int i) {
+        if(live.get(i)) {
+            live.clear(i);
+            liveCount--;
+            modCount++;
+            if(grid != null) {
+                grid.remove(i);
+            }
+            for(int l = 0; l < listeners.size(); l++) {
+                listeners.get(l).brickDestroyed(this, i);
+            }
+        }
+    }
+    
+    /**
+     * Adds a brick to the live bricks and the grid.
+     * @param i The index of the brick.
+     */
+    private void revive(int i) {
+        if(!live.get(i)) {
+            live.set(i);
+            liveCount++;
+            modCount++;
+            if(grid != null) {
+                grid.restore(i);
+            }
+        }
+    }
+    
+    /**
+     * Resets the lifepoints of a brick.
+     * @param i The index of the brick.
+     */
+    public void reset(int i) {
+        lifePoints[i] = TYPES[type[i]].getLifePoints();
+        revive(i);
+    }
+    
+    /**
+     * Resets the lifepoints of all bricks.
+     */
+    public void reset() {
+        for(int i = 0; i < size; i++) {
+            reset(i);
+        }
+    }
+    
+    /**
+     * Draws a single brick. The brick is filled with the color of its type and gets
+     * a black border.
+     * @param i The index of the brick.
+     * @param g2 The graphics context.
+     */
+    public void draw(int i, Graphics2D g2) {
+        rectangle.setRect(x[i], y[i], w[i], h[i]);
+        g2.setColor(TYPES[type[i]].getColor());
+        g2.fill(rectangle);
+        g2.setColor(Color.black);
+        g2.draw(rectangle);
+    }
+    
+    /**
+     * Draws all bricks that are not destroyed.
+     * @param state The current game state.
+     * @param g2 The graphics context.
+     */
+    public void draw(GameState state, Graphics2D g2) {
+        for(int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            draw(i, g2);
+        }
+    }
+}
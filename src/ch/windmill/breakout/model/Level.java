@@ -24,14 +24,18 @@
 package ch.windmill.breakout.model;
 
 import ch.windmill.breakout.control.LevelManager;
-import java.awt.Color;
+import ch.windmill.breakout.exception.IllegalColorException;
+import ch.windmill.breakout.model.Brick.BrickType;
 import java.awt.image.BufferedImage;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * This class represents a level in the breakout app. A Level object holds a list of Sprites.
- * A Level object can be loaded from a image resource file.
+ * The bricks are held by a BrickStore. A Level object can be loaded from a image resource file
+ * or created as an instance of a LevelTemplate. An instance shares the bounds and types of
+ * the bricks with the template and only holds the state that changes in a game.
  * @author Cyrill Jauner
  */
 public class Level {
@@ -39,7 +43,8 @@ public class Level {
     private final float brickWidth, brickHeight;
     private final int levelWidth, levelHeight;
     
-    private List<Brick> bricks;
+    private final BrickStore brickStore;
+    private BrickGrid grid;
     private List<Ball> balls;
     private Paddle paddle;
     
@@ -55,11 +60,30 @@ public class Level {
         this.brickHeight = brickHeight;
         this.levelWidth = levelWidth;
         this.levelHeight = levelHeight;
-        bricks = new ArrayList<>();
+        brickStore = new BrickStore(16);
+        grid = null;
         balls = new ArrayList<>();
         paddle = null;
     }
     
+    /**
+     * Creates a new Level object as an instance of the template. The bricks are copied in
+     * O(bricks) without parsing the level again. The level gets an initial paddle and ball.
+     * @param template The template of the level.
+     */
+    public Level(LevelTemplate template) {
+        brickWidth = template.getBrickWidth();
+        brickHeight = template.getBrickHeight();
+        levelWidth = template.getLevelWidth();
+        levelHeight = template.getLevelHeight();
+        brickStore = new BrickStore(template.getBrickStore());
+        grid = template.getGrid() != null ? new BrickGrid(template.getGrid()) : null;
+        brickStore.setGrid(grid);
+        balls = new ArrayList<>();
+        balls.add(LevelManager.createInitBall());
+        paddle = LevelManager.createInitPaddle(levelWidth, levelHeight);
+    }
+    
     /**
      * Creates a level object with the given image file.
      * @param img The level resource file.
@@ -69,22 +93,106 @@ public class Level {
      * @return A new level object.
      */
     public static Level loadFromImage(BufferedImage img, int levelWidth, int levelHeight, int numBricksXAxis) {
+        return loadFromImage(img, levelWidth, levelHeight, numBricksXAxis, BrickColorTable.DEFAULT);
+    }
+    
+    /**
+     * Creates a level object with the given image file.
+     * @param img The level resource file.
+     * @param levelWidth The width of the level.
+     * @param levelHeight The height of the level.
+     * @param numBricksXAxis The number of bricks in a row.
+     * @param colors The table that maps the pixels to BrickTypes.
+     * @return A new level object.
+     */
+    public static Level loadFromImage(BufferedImage img, int levelWidth, int levelHeight, int numBricksXAxis, BrickColorTable colors) {
         int rgbValues[] = img.getRGB(0, 0, img.getWidth(), img.getHeight(), null, 0, img.getWidth());
         float brickWidth = (float)levelWidth / numBricksXAxis;
         float brickHeight = brickWidth * 0.5f;;
         Level level = new Level(brickWidth, brickHeight, levelWidth, levelHeight);
-        level.generateBricks(rgbValues, numBricksXAxis);
+        level.generateBricks(rgbValues, numBricksXAxis, colors);
         return level;
     }
     
+    /**
+     * Gets a list view of the bricks in the brick store. The list does not hold a Brick
+     * object per brick, every get creates a new view of the brick at the requested index.
+     * @return A list view with all bricks of this level.
+     */
     public List<Brick> getBricks() {
-        return bricks;
+        return new AbstractList<Brick>() {
+            @Override
+            public Brick get(int index) {
+                if(index < 0 || index >= brickStore.size()) {
+                    throw new IndexOutOfBoundsException("Index: "+index);
+                }
+                return new Brick(brickStore, index);
+            }
+
+            @Override
+            public int size() {
+                return brickStore.size();
+            }
+        };
+    }
+    
+    public BrickStore getBrickStore() {
+        return brickStore;
+    }
+    
+    /**
+     * Gets the number of bricks that are not destroyed. The number is tracked by the
+     * brick store, so this method runs in constant time.
+     * @return The number of remaining bricks.
+     */
+    public int remainingBricks() {
+        return brickStore.liveCount();
+    }
+    
+    /**
+     * Adds a listener that is notified when a brick of this level is destroyed.
+     * @param l The listener to add.
+     */
+    public void addBrickListener(BrickListener l) {
+        brickStore.addBrickListener(l);
+    }
+    
+    /**
+     * Removes the given brick listener.
+     * @param l The listener to remove.
+     */
+    public void removeBrickListener(BrickListener l) {
+        brickStore.removeBrickListener(l);
+    }
+    
+    /**
+     * Gets the spatial index of the bricks. The grid is created by the generateBricks method.
+     * @return The brick grid or null if no bricks were generated.
+     */
+    public BrickGrid getGrid() {
+        return grid;
     }
     
     public List<Ball> getBalls() {
         return balls;
     }
 
+    public float getBrickWidth() {
+        return brickWidth;
+    }
+
+    public float getBrickHeight() {
+        return brickHeight;
+    }
+
+    public int getLevelWidth() {
+        return levelWidth;
+    }
+
+    public int getLevelHeight() {
+        return levelHeight;
+    }
+
     public void setPaddle(Paddle paddle) {
         this.paddle = paddle;
     }
@@ -102,39 +210,65 @@ public class Level {
     }
     
     /**
-     * Generate Brick objects with the given rgb array.
+     * Generate Brick objects with the given rgb array. This method also builds the brick grid
+     * with one cell for each rgb value. Unknown colors are STANDARD bricks.
      * @param rgb Array with rgb values.
      * @param numBricksXAxis The max number of bricks in a row.
      */
     public void generateBricks(int[] rgb, int numBricksXAxis) {
-        float x = 0;
-        float y = 0;
-        int j = 0;
+        generateBricks(rgb, numBricksXAxis, BrickColorTable.DEFAULT);
+    }
+    
+    /**
+     * Generate Brick objects with the given rgb array. This method also builds the brick grid
+     * with one cell for each rgb value. The color table maps the rgb values to BrickTypes,
+     * no object is allocated per rgb value.
+     * @param rgb Array with rgb values.
+     * @param numBricksXAxis The max number of bricks in a row.
+     * @param colors The table that maps the rgb values to BrickTypes.
+     * @throws IllegalColorException A color is unknown and the policy of the table is FAIL.
+     */
+    public void generateBricks(int[] rgb, int numBricksXAxis, BrickColorTable colors) {
+        int numRows = (rgb.length + numBricksXAxis - 1) / numBricksXAxis;
+        createGrid(numBricksXAxis, numRows);
         
-        for(int i = 0; i < rgb.length; i++, j++) {
-            x = j * brickWidth;
-            Color c = new Color(rgb[i]);
-            
-            if(!c.equals(Color.white)) {
-                Brick brick = new Brick(c, x, y, brickWidth, brickHeight);
-                bricks.add(brick);
-            }
-            
-            if(j == (numBricksXAxis -1)) {
-                j = -1;
-                y += brickHeight;
+        for(int i = 0; i < rgb.length; i++) {
+            BrickType type = colors.lookup(rgb[i]);
+            if(type != null) {
+                addBrick(i % numBricksXAxis, i / numBricksXAxis, type);
             }
         }
     }
     
+    /**
+     * Creates an empty brick grid. Bricks are added to the grid by the addBrick method.
+     * @param cols The number of bricks in a row.
+     * @param rows The number of rows.
+     */
+    public void createGrid(int cols, int rows) {
+        grid = new BrickGrid(brickWidth, brickHeight, cols, rows);
+        brickStore.setGrid(grid);
+    }
+    
+    /**
+     * Adds a brick to a cell of the grid. The bounds of the brick are the bounds of the cell.
+     * @param col The column of the cell.
+     * @param row The row of the cell.
+     * @param type The type of the brick.
+     * @return The index of the brick in the brick store.
+     */
+    public int addBrick(int col, int row, BrickType type) {
+        int brick = brickStore.add(col * brickWidth, row * brickHeight, brickWidth, brickHeight, type);
+        grid.add(brick, col, row);
+        return brick;
+    }
+    
     /**
      * Resets all sprites to their initial values.
      */
     public void reset() {
-        for(Brick b : bricks) {
-            b.reset();
-        }
-        balls = new ArrayList<>();
+        brickStore.reset();
+        balls.clear();
         balls.add(LevelManager.createInitBall());
         paddle = LevelManager.createInitPaddle(levelWidth, levelHeight);
     }
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.model;
+
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+/**
+ * This class represents the immutable data of a level, i.e. the size of the level and the
+ * bounds and types of the bricks. A template is parsed once and can be shared by any number
+ * of games and threads. Every game plays its own Level instance of the template, which holds
+ * only the state that changes in a game.
+ * @author Cyrill Jauner
+ */
+public final class LevelTemplate {
+    
+    private final float brickWidth, brickHeight;
+    private final int levelWidth, levelHeight;
+    private final BrickStore brickStore;
+    private final BrickGrid grid;
+    
+    /**
+     * Creates a new LevelTemplate object with the bricks of a generated level. The level
+     * must not be used by anyone else.
+     * @param level The generated level.
+     */
+    private LevelTemplate(Level level) {
+        brickWidth = level.getBrickWidth();
+        brickHeight = level.getBrickHeight();
+        levelWidth = level.getLevelWidth();
+        levelHeight = level.getLevelHeight();
+        brickStore = level.getBrickStore();
+        grid = level.getGrid();
+    }
+    
+    /**
+     * Creates a template with the given image file.
+     * @param img The level resource file.
+     * @param levelWidth The width of the level.
+     * @param levelHeight The height of the level.
+     * @param numBricksXAxis The number of bricks in a row.
+     * @return A new level template.
+     */
+    public static LevelTemplate fromImage(BufferedImage img, int levelWidth, int levelHeight, int numBricksXAxis) {
+        return fromImage(img, levelWidth, levelHeight, numBricksXAxis, BrickColorTable.DEFAULT);
+    }
+    
+    /**
+     * Creates a template with the given image file.
+     * @param img The level resource file.
+     * @param levelWidth The width of the level.
+     * @param levelHeight The height of the level.
+     * @param numBricksXAxis The number of bricks in a row.
+     * @param colors The table that maps the pixels to BrickTypes.
+     * @return A new level template.
+     */
+    public static LevelTemplate fromImage(BufferedImage img, int levelWidth, int levelHeight, int numBricksXAxis, BrickColorTable colors) {
+        return new LevelTemplate(Level.loadFromImage(img, levelWidth, levelHeight, numBricksXAxis, colors));
+    }
+    
+    /**
+     * Creates a template with the given rgb array. Every rgb value is one brick, white
+     * values are empty.
+     * @param rgb Array with rgb values.
+     * @param brickWidth The width of each brick.
+     * @param brickHeight The height of each brick.
+     * @param levelWidth The width of the level.
+     * @param levelHeight The height of the level.
+     * @param numBricksXAxis The number of bricks in a row.
+     * @return A new level template.
+     */
+    public static LevelTemplate fromRgb(int[] rgb, float brickWidth, float brickHeight, int levelWidth, int levelHeight, int numBricksXAxis) {
+        return build(brickWidth, brickHeight, levelWidth, levelHeight, level -> level.generateBricks(rgb, numBricksXAxis));
+    }
+    
+    /**
+     * Creates a template with bricks that are added by a generator. The generator gets an
+     * empty level and adds the bricks to it, e.g. with the createGrid and addBrick methods.
+     * The level is only used to build the template.
+     * @param brickWidth The width of each brick.
+     * @param brickHeight The height of each brick.
+     * @param levelWidth The width of the level.
+     * @param levelHeight The height of the level.
+     * @param generator Adds the bricks to the level.
+     * @return A new level template.
+     */
+    public static LevelTemplate build(float brickWidth, float brickHeight, int levelWidth, int levelHeight, Consumer<Level> generator) {
+        Level level = new Level(brickWidth, brickHeight, levelWidth, levelHeight);
+        generator.accept(level);
+        return new LevelTemplate(level);
+    }
+    
+    /**
+     * Creates a new Level instance of this template.
+     * @return A new level with an initial paddle and ball.
+     */
+    public Level instantiate() {
+        return new Level(this);
+    }
+
+    public float getBrickWidth() {
+        return brickWidth;
+    }
+
+    public float getBrickHeight() {
+        return brickHeight;
+    }
+
+    public int getLevelWidth() {
+        return levelWidth;
+    }
+
+    public int getLevelHeight() {
+        return levelHeight;
+    }
+    
+    /**
+     * Gets the number of bricks of this template.
+     * @return The number of bricks.
+     */
+    public int getNumBricks() {
+        return brickStore.size();
+    }
+    
+    BrickStore getBrickStore() {
+        return brickStore;
+    }
+    
+    BrickGrid getGrid() {
+        return grid;
+    }
+}
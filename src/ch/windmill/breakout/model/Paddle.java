@@ -93,6 +93,10 @@ public class Paddle extends Rect {
         return null;
     }
 
+    public Color getColor() {
+        return color;
+    }
+
     @Override
     public void drawRectangle(Graphics2D g2) {
         g2.setColor(color);
@@ -72,10 +72,16 @@ public abstract class Rect extends Sprite {
         return new Vector2F(position.x + width/2, position.y + height/2);
     }
 
+    @Override
+    public Vector2F centerInto(Vector2F out) {
+        out.set(position.x + width/2, position.y + height/2);
+        return out;
+    }
+
     @Override
     public void update(GameState state) {
-        lastPosition = Vector2F.copyOf(position);
-        position.add(Vector2F.multiply(velocity, state.seconds));
+        lastPosition.set(position);
+        position.addScaled(velocity, state.seconds);
     }
 
     @Override
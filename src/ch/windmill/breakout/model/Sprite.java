@@ -61,4 +61,11 @@ public abstract class Sprite {
      * @return position vector to the center of the sprite.
      */
     public abstract Vector2F center();
+    
+    /**
+     * Stores the center of this sprite in the given vector.
+     * @param out The vector to store the center.
+     * @return The out vector.
+     */
+    public abstract Vector2F centerInto(Vector2F out);
 }
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.server;
+
+import ch.windmill.breakout.control.Breakout;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.engine.GameState;
+import ch.windmill.engine.HeadlessRunner;
+import ch.windmill.engine.InterpolatedLoop;
+import ch.windmill.engine.input.GameInput;
+import ch.windmill.engine.metrics.LoopMetrics;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents one headless breakout game of a session host. Every session has its
+ * own level, game and state, so sessions never share mutable state. A session is ticked by
+ * one worker at a time. A game that ends is restarted on the next tick.
+ * @author Cyrill Jauner
+ */
+public class BreakoutSession {
+    
+    private final int id;
+    private final Breakout breakout;
+    private final HeadlessRunner runner;
+    private long ticks;
+    
+    /**
+     * Creates a new BreakoutSession object.
+     * @param id The id of the session.
+     * @param level The level of the session. The level must not be used by another session.
+     * @param metrics The metrics to record the loop durations to.
+     * @param step The simulated time of one tick.
+     * @param unit The time unit of the step.
+     */
+    public BreakoutSession(int id, Level level, LoopMetrics metrics, long step, TimeUnit unit) {
+        this.id = id;
+        breakout = new Breakout(level.getLevelWidth(), level.getLevelHeight());
+        breakout.setBrickCaching(false);
+        breakout.setLevel(level);
+        runner = new HeadlessRunner(breakout, new GameState(metrics), new InterpolatedLoop(1, step, unit), step, unit);
+        ticks = 0;
+    }
+    
+    /**
+     * Runs one tick of the game.
+     */
+    public void tick() {
+        if(!breakout.isRunning()) {
+            runner.start();
+        }
+        runner.step();
+        ticks++;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Breakout getBreakout() {
+        return breakout;
+    }
+    
+    /**
+     * Gets the input of the game. The input is read by the worker that ticks the session.
+     * @return The game input.
+     */
+    public GameInput getInput() {
+        return runner.getInput();
+    }
+    
+    /**
+     * Gets the number of ticks of this session. This value is only exact if the session is
+     * not ticked at the same time.
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.server;
+
+import ch.windmill.breakout.control.LevelManager;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.breakout.model.LevelTemplate;
+import ch.windmill.engine.metrics.Histogram;
+import ch.windmill.engine.metrics.LogReporter;
+import ch.windmill.engine.metrics.LoopMetrics;
+import ch.windmill.engine.metrics.MetricsPublisher;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.imageio.ImageIO;
+
+/**
+ * This class hosts many headless breakout sessions in one JVM. The ticks of all sessions are
+ * scheduled on a fixed pool of worker threads. A session is never ticked by two workers at
+ * the same time. With a tick period of 0, every session is ticked again as soon as a worker
+ * is free, which shows the max number of ticks per second of a host. These sessions run on a
+ * plain thread pool and tick several times per task, so the workers do not contend on the
+ * delay queue of a scheduled pool. All sessions record their loop durations to the metrics
+ * of the host, which keeps separate histograms for every worker.
+ * @author Cyrill Jauner
+ */
+public class SessionHost {
+    
+    /**
+     * The simulated time of one tick in milliseconds.
+     */
+    private static final long STEP_MILLIS = 10;
+    
+    /**
+     * The number of ticks of a session in one task, if the tick period is 0.
+     */
+    private static final int TICKS_PER_TASK = 16;
+    
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private final long period;
+    private final HostMetrics metrics;
+    private final LongAdder ticks;
+    private final Map<Integer, SessionTask> tasks;
+    private final AtomicInteger nextId;
+    private long lastTicks;
+    private long lastTime;
+    
+    /**
+     * Creates a new SessionHost object.
+     * @param numWorkers The number of worker threads.
+     * @param period The time between two ticks of a session or 0 to tick as fast as possible.
+     * @param unit The time unit of the period.
+     */
+    public SessionHost(int numWorkers, long period, TimeUnit unit) {
+        AtomicInteger workerId = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, "session-worker-" + workerId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.period = unit.toNanos(period);
+        if(this.period > 0) {
+            scheduler = Executors.newScheduledThreadPool(numWorkers, factory);
+            workers = scheduler;
+        } else {
+            scheduler = null;
+            workers = Executors.newFixedThreadPool(numWorkers, factory);
+        }
+        metrics = new HostMetrics();
+        ticks = new LongAdder();
+        tasks = new ConcurrentHashMap<>();
+        nextId = new AtomicInteger();
+        lastTicks = 0;
+        lastTime = System.nanoTime();
+    }
+    
+    /**
+     * Opens a new session and schedules its ticks.
+     * @param levelFactory Creates the level of the session. Every invocation must return a
+     * new level object, e.g. a new instance of a level template.
+     * @return The new session.
+     */
+    public BreakoutSession open(Supplier<Level> levelFactory) {
+        BreakoutSession session = new BreakoutSession(nextId.incrementAndGet(), levelFactory.get(),
+                metrics, STEP_MILLIS, TimeUnit.MILLISECONDS);
+        SessionTask task = new SessionTask(session);
+        tasks.put(session.getId(), task);
+        if(period > 0) {
+            task.future = scheduler.scheduleAtFixedRate(task, period, period, TimeUnit.NANOSECONDS);
+        } else {
+            workers.execute(task);
+        }
+        return session;
+    }
+    
+    /**
+     * Closes a session. The session is not ticked anymore.
+     * @param session The session to close.
+     */
+    public void close(BreakoutSession session) {
+        SessionTask task = tasks.remove(session.getId());
+        if(task != null) {
+            task.close();
+        }
+    }
+    
+    /**
+     * Closes all sessions and stops the workers.
+     */
+    public void shutdown() {
+        for(SessionTask task : tasks.values()) {
+            task.close();
+        }
+        tasks.clear();
+        workers.shutdown();
+    }
+    
+    public int getNumSessions() {
+        return tasks.size();
+    }
+    
+    /**
+     * Gets the metrics that all sessions record to. The durations are recorded to the
+     * histograms of the worker threads and merged when the metrics are drained, e.g. by a
+     * metrics publisher, or read.
+     * @return The loop metrics of the host.
+     */
+    public LoopMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Gets the number of ticks of all sessions.
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return ticks.sum();
+    }
+    
+    /**
+     * Gets the number of ticks per second of all sessions since the last invocation of this
+     * method.
+     * @return The ticks per second.
+     */
+    public synchronized double getTicksPerSecond() {
+        long now = System.nanoTime();
+        long currentTicks = ticks.sum();
+        double rate = (currentTicks - lastTicks) / ((now - lastTime) * 0.000000001);
+        lastTicks = currentTicks;
+        lastTime = now;
+        return rate;
+    }
+    
+    /**
+     * The task that ticks a session on a worker.
+     */
+    private class SessionTask implements Runnable {
+        
+        private final BreakoutSession session;
+        private volatile boolean closed;
+        private volatile ScheduledFuture<?> future;
+        
+        SessionTask(BreakoutSession session) {
+            this.session = session;
+            closed = false;
+            future = null;
+        }
+        
+        @Override
+        public void run() {
+            int numTicks = period == 0 ? TICKS_PER_TASK : 1;
+            for(int i = 0; i < numTicks && !closed; i++) {
+                try {
+                    session.tick();
+                    ticks.increment();
+                } catch(RuntimeException ex) {
+                    ex.printStackTrace();
+                    SessionHost.this.close(session);
+                    return;
+                }
+            }
+            if(period == 0 && !closed) {
+                try {
+                    workers.execute(this);
+                } catch(RejectedExecutionException ex) {
+                    if(!workers.isShutdown()) {
+                        throw ex;
+                    }
+                }
+            }
+        }
+        
+        void close() {
+            closed = true;
+            if(future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+    
+    /**
+     * The metrics of the host. The durations of the sessions are recorded to the metrics of
+     * the current worker thread, so the workers do not contend on the same histograms. The
+     * worker metrics are merged when the host metrics are drained or read.
+     */
+    private static class HostMetrics extends LoopMetrics {
+        
+        private final List<LoopMetrics> workerMetrics;
+        private final ThreadLocal<LoopMetrics> current;
+        
+        HostMetrics() {
+            workerMetrics = new CopyOnWriteArrayList<>();
+            current = ThreadLocal.withInitial(() -> {
+                LoopMetrics m = new LoopMetrics();
+                workerMetrics.add(m);
+                return m;
+            });
+        }
+        
+        @Override
+        public void record(Metric metric, long nanos) {
+            current.get().record(metric, nanos);
+        }
+        
+        /**
+         * Gets a snapshot of a metric that merges the histograms of all workers.
+         * @param metric The metric.
+         * @return A new histogram with the durations of all workers.
+         */
+        @Override
+        public Histogram get(Metric metric) {
+            Histogram merged = new Histogram();
+            super.get(metric).copyTo(merged);
+            for(LoopMetrics m : workerMetrics) {
+                m.get(metric).copyTo(merged);
+            }
+            return merged;
+        }
+        
+        @Override
+        public void drainTo(LoopMetrics target) {
+            super.drainTo(target);
+            for(LoopMetrics m : workerMetrics) {
+                m.drainTo(target);
+            }
+            target.setConfiguration(getConfiguration());
+        }
+        
+        @Override
+        public void reset() {
+            super.reset();
+            for(LoopMetrics m : workerMetrics) {
+                m.reset();
+            }
+        }
+    }
+    
+    /**
+     * Runs headless sessions of one level and prints the ticks per second of the host. The
+     * arguments are the level image, the number of sessions, the number of workers and the
+     * run time in seconds.
+     * @param args The command line arguments.
+     * @throws IOException The level image could not be read.
+     * @throws InterruptedException The main thread was interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BufferedImage img = ImageIO.read(new File(args[0]));
+        int numSessions = Integer.parseInt(args[1]);
+        int numWorkers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+        
+        LevelTemplate template = LevelManager.createTemplate(img, 600, 600);
+        SessionHost host = new SessionHost(numWorkers, 0, TimeUnit.MILLISECONDS);
+        for(int i = 0; i < numSessions; i++) {
+            host.open(template::instantiate);
+        }
+        MetricsPublisher publisher = new MetricsPublisher(host.getMetrics());
+        publisher.addReporter(new LogReporter());
+        publisher.start(1, TimeUnit.SECONDS);
+        
+        host.getTicksPerSecond();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        System.out.println(String.format("%d sessions on %d workers: %.0f ticks/s",
+                host.getNumSessions(), numWorkers, host.getTicksPerSecond()));
+        
+        publisher.stop();
+        host.shutdown();
+    }
+}
@@ -23,11 +23,13 @@
  */
 package ch.windmill.breakout.view;
 
+import ch.windmill.engine.RenderProfile;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JPanel;
@@ -40,8 +42,9 @@ import javax.swing.ListSelectionModel;
 public class BreakoutControlPanel extends JPanel implements ActionListener {
     
     private JList<String> listLevels;
-    private JLabel labelLvl, labelState;
+    private JLabel labelLvl, labelState, labelProfile;
     private JButton btnStart, btnStop, btnReset;
+    private JComboBox<RenderProfile> comboProfile;
     
     private final BreakoutFrame frame;
     
@@ -81,6 +84,9 @@ public class BreakoutControlPanel extends JPanel implements ActionListener {
         btnStop = new JButton("Stop");
         btnStop.setEnabled(false);
         btnReset = new JButton("Reset");
+        labelProfile = new JLabel("Render profile:");
+        comboProfile = new JComboBox<>(RenderProfile.values());
+        comboProfile.setSelectedItem(RenderProfile.BALANCED);
         
         listLevels.setListData(levels);
         listLevels.setPreferredSize(new Dimension(100, 200));
@@ -89,6 +95,7 @@ public class BreakoutControlPanel extends JPanel implements ActionListener {
         btnStart.addActionListener(this);
         btnStop.addActionListener(this);
         btnReset.addActionListener(this);
+        comboProfile.addActionListener(this);
         
         add(labelLvl);
         add(listLevels);
@@ -96,6 +103,8 @@ public class BreakoutControlPanel extends JPanel implements ActionListener {
         add(btnStop);
         add(btnReset);
         add(labelState);
+        add(labelProfile);
+        add(comboProfile);
     }
 
     @Override
@@ -117,6 +126,9 @@ public class BreakoutControlPanel extends JPanel implements ActionListener {
                 frame.resetBreakout();
                 btnStop.setEnabled(false);
             }
+            if(e.getSource() == comboProfile) {
+                frame.setRenderProfile((RenderProfile) comboProfile.getSelectedItem());
+            }
         }
     }
 }
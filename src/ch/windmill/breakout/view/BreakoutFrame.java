@@ -25,13 +25,19 @@ package ch.windmill.breakout.view;
 
 import ch.windmill.breakout.control.Breakout;
 import ch.windmill.breakout.control.LevelManager;
-import ch.windmill.breakout.model.Level;
+import ch.windmill.engine.GameScreen.RenderBackend;
 import ch.windmill.engine.GameState;
 import ch.windmill.engine.InterpolatedLoop;
+import ch.windmill.engine.Loopable;
+import ch.windmill.engine.RenderProfile;
+import ch.windmill.engine.ThreadedLoop;
+import ch.windmill.engine.metrics.JmxReporter;
+import ch.windmill.engine.metrics.LogReporter;
+import ch.windmill.engine.metrics.MetricsPublisher;
 import java.awt.Color;
 import java.awt.FlowLayout;
-import java.util.HashMap;
 import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
 import javax.swing.JFrame;
 
 /**
@@ -43,11 +49,15 @@ public class BreakoutFrame extends JFrame {
     public final static String STATE_RUNNING = "running";
     public final static String STATE_GAMEOVER = "game over";
     private final static String TITLE = "Breakout";
+    private final static long METRICS_PERIOD = 1;
+    private final static String LOG_METRICS_PROPERTY = "breakout.metrics.log";
     
     private BreakoutControlPanel controlPanel;
     private BreakoutScreen screen;
     private Breakout breakout;
     private LevelManager levelManager;
+    private GameState state;
+    private MetricsPublisher metricsPublisher;
     
     /**
      * Creates a new BreakoutFrame object.
@@ -55,10 +65,31 @@ public class BreakoutFrame extends JFrame {
      * @param height The height of the game screen.
      */
     public BreakoutFrame(int width, int height) {
+        this(width, height, RenderBackend.IMAGE);
+    }
+    
+    /**
+     * Creates a new BreakoutFrame object.
+     * @param width The width of the game screen.
+     * @param height The height of the game screen.
+     * @param backend The render backend of the game screen.
+     */
+    public BreakoutFrame(int width, int height, RenderBackend backend) {
+        this(width, height, backend, false);
+    }
+    
+    /**
+     * Creates a new BreakoutFrame object.
+     * @param width The width of the game screen.
+     * @param height The height of the game screen.
+     * @param backend The render backend of the game screen.
+     * @param threaded Wheter the game is updated and drawn by two threads.
+     */
+    public BreakoutFrame(int width, int height, RenderBackend backend, boolean threaded) {
         super(TITLE);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new FlowLayout());
-        initBreakout(width, height);
+        initBreakout(width, height, backend, threaded);
         
         pack();
     }
@@ -67,25 +98,56 @@ public class BreakoutFrame extends JFrame {
      * Initializes the game.
      * @param w The width of the game screen.
      * @param h The height of the game screen.
+     * @param backend The render backend of the game screen.
+     * @param threaded Wheter the game is updated and drawn by two threads.
      */
-    private void initBreakout(int w, int h) {
+    private void initBreakout(int w, int h, RenderBackend backend, boolean threaded) {
         levelManager = new LevelManager("./res/levels");
         levelManager.loadLevels(w, h);
+        levelManager.prefetch();
         
         breakout = new Breakout(w, h);
-        GameState state = new GameState();
-        InterpolatedLoop loop = new InterpolatedLoop(3, 16, TimeUnit.MILLISECONDS);
+        state = new GameState();
+        state.setRenderProfile(RenderProfile.BALANCED);
+        Loopable loop;
+        if(threaded) {
+            loop = new ThreadedLoop(3, 16, TimeUnit.MILLISECONDS);
+        } else {
+            loop = new InterpolatedLoop(3, 16, TimeUnit.MILLISECONDS);
+        }
         
         String[] lvlNames = levelManager.getLevelKeys();
         
         controlPanel = new BreakoutControlPanel(100, h, lvlNames, this);
         
-        screen = new BreakoutScreen(breakout, state, loop, w, h);
+        initMetrics(state);
+        
+        screen = new BreakoutScreen(breakout, state, loop, w, h, backend);
         screen.setBackground(Color.white);
         add(screen);
         add(controlPanel);
     }
     
+    /**
+     * Publishes the metrics of the game loop as MXBean. The metrics are also printed to the standard
+     * output if the system property breakout.metrics.log is true.
+     * @param state The state of the game loop.
+     */
+    private void initMetrics(GameState state) {
+        metricsPublisher = new MetricsPublisher(state.metrics);
+        if(Boolean.getBoolean(LOG_METRICS_PROPERTY)) {
+            metricsPublisher.addReporter(new LogReporter());
+        }
+        try {
+            JmxReporter jmxReporter = new JmxReporter(TITLE);
+            jmxReporter.register();
+            metricsPublisher.addReporter(jmxReporter);
+        } catch (JMException ex) {
+            ex.printStackTrace();
+        }
+        metricsPublisher.start(METRICS_PERIOD, TimeUnit.SECONDS);
+    }
+    
     /**
      * Starts breakout in a new thread.
      */
@@ -104,6 +166,15 @@ public class BreakoutFrame extends JFrame {
         screen.stop();
     }
     
+    /**
+     * Sets the render profile of the game screen. The profile can be changed while the game
+     * is running.
+     * @param profile The render profile.
+     */
+    public void setRenderProfile(RenderProfile profile) {
+        state.setRenderProfile(profile);
+    }
+    
     /**
      * Resets the current scene.
      */
@@ -126,9 +197,7 @@ public class BreakoutFrame extends JFrame {
      */
     public void setCurrentLevel(String lvlKey) {
         if(!screen.getGame().isRunning()) {
-            HashMap<String, Level> map = levelManager.getLevels();
-            Level level = map.get(lvlKey);
-            breakout.setLevel(level);
+            breakout.setLevel(levelManager.createLevel(lvlKey));
         }
     }
 }
@@ -38,6 +38,10 @@ public class BreakoutScreen extends GameScreen {
         super(game, state, loop, width, height);
     }
     
+    public BreakoutScreen(Breakout game, GameState state, Loopable loop, int width, int height, RenderBackend backend) {
+        super(game, state, loop, width, height, backend);
+    }
+    
     public void stop() {
         getGame().terminate();
     }
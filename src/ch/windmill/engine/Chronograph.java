@@ -8,7 +8,10 @@ package ch.windmill.engine;
 import java.util.concurrent.TimeUnit;
 
 /**
- * This class represents a chronograph to track time cylces.
+ * This class represents a chronograph to track time cylces. Besides the rate of the cycles,
+ * a chronograph can track the time that is spent in the cycles. The rate string then also
+ * shows the average time per cycle. The rate string is created by the caller of
+ * getRateString, so a cycle never formats or prints anything.
  */
 public class Chronograph {
     
@@ -16,9 +19,10 @@ public class Chronograph {
     private long time;
     private long cycles;
     private long refreshInterval;
-    private double rate;
+    private volatile double rate;
+    private long busyTime;
+    private volatile double averageTime;
     private String name;
-    private String rateString;
 
     /**
      * Creates a new Chronograph object.
@@ -31,7 +35,16 @@ public class Chronograph {
         setRefreshInterval(interval, unit);
     }
 
+    /**
+     * Gets the rate of the last refresh interval and the average time per cycle, if time
+     * was added.
+     * @return The rate string.
+     */
     public String getRateString() {
+        String rateString = name+": "+rate;
+        if(averageTime > 0) {
+            rateString += String.format(" (%.3f ms)", averageTime);
+        }
         return rateString;
     }
 
@@ -52,6 +65,22 @@ public class Chronograph {
         refreshInterval = unit.toNanos(interval);
     }
     
+    /**
+     * Gets the average time per cycle of the last refresh interval.
+     * @return The average time in milliseconds.
+     */
+    public double getAverageTime() {
+        return averageTime;
+    }
+    
+    /**
+     * Adds time that was spent in the current cycle.
+     * @param nanos The spent time in nanoseconds.
+     */
+    public void addTime(long nanos) {
+        busyTime += nanos;
+    }
+    
     /**
      * Calculates the delta time between now and the last cycle.
      */
@@ -63,32 +92,25 @@ public class Chronograph {
         cycles++;
         if(time >= refreshInterval) {
             rate = cycles / (time * 0.000000001);
-            updateRateString();
+            averageTime = busyTime * 0.000001 / cycles;
             time -= refreshInterval;
             cycles = 0;
+            busyTime = 0;
         }
         
         lastTime = currTime;
     }
     
     /**
-     * Updates the rate string.
-     */
-    private void updateRateString() {
-        rateString = name+": "+rate;
-        System.out.println(rateString);
-    }
-    
-    /**
-     * Resets this chronograph. This method resets all time fields and updates
-     * the rate string.
+     * Resets this chronograph. This method resets all time fields.
      */
     public void reset() {
         lastTime = System.nanoTime();
         time = 0;
         cycles = 0;
         rate = 0;
-        updateRateString();
+        busyTime = 0;
+        averageTime = 0;
     }
 
     
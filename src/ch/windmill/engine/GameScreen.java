@@ -5,30 +5,62 @@
  */
 package ch.windmill.engine;
 
+import ch.windmill.engine.RenderProfile.Layer;
 import ch.windmill.engine.input.GameInput;
+import ch.windmill.engine.metrics.LoopMetrics.Metric;
+import java.awt.AWTException;
+import java.awt.BorderLayout;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.ImageCapabilities;
 import java.awt.MouseInfo;
-import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 
 /**
- * This class represents a Screen to display the game.
+ * This class represents a Screen to display the game. The screen has two render backends.
+ * The IMAGE backend draws into a BufferedImage and copies it to the panel. The BUFFER_STRATEGY
+ * backend draws into the back buffer of a Canvas and shows it by page flipping, if the
+ * graphics device supports it. The back buffers of a buffer strategy are accelerated
+ * VolatileImages. The time to draw and present a frame is added to the draw chronograph and to
+ * the metrics of the game state, so the backends can be compared by the frame time. The delay
+ * from the capture of an input to the presentation of a frame that shows it is recorded as
+ * input latency. The rendering hints of a frame are set by the render profile of the game
+ * state.
  */
 public class GameScreen extends JPanel {
     
+    /**
+     * The render backends of a game screen.
+     */
+    public enum RenderBackend {
+        IMAGE,
+        BUFFER_STRATEGY
+    }
+    
+    /**
+     * The number of buffers of the buffer strategy.
+     */
+    private static final int NUM_BUFFERS = 2;
+    
     private Game game;
     private Loopable loop;
     private GameState state;
     private GameInput input;
     private Graphics2D g2;
     private BufferedImage buffer;
+    private final RenderBackend backend;
+    private Canvas canvas;
+    private LoopScheduler scheduler;
     
     /**
-     * Creates a new GameScreen object.
+     * Creates a new GameScreen object with the IMAGE backend.
      * @param game The game to play.
      * @param state The state of the game.
      * @param loop The gameloop
@@ -36,25 +68,73 @@ public class GameScreen extends JPanel {
      * @param height The height of this screen in pixels.
      */
     public GameScreen(Game game, GameState state, Loopable loop, int width, int height) {
+        this(game, state, loop, width, height, RenderBackend.IMAGE);
+    }
+    
+    /**
+     * Creates a new GameScreen object.
+     * @param game The game to play.
+     * @param state The state of the game.
+     * @param loop The gameloop
+     * @param width The width of this screen in pixels.
+     * @param height The height of this screen in pixels.
+     * @param backend The render backend.
+     */
+    public GameScreen(Game game, GameState state, Loopable loop, int width, int height, RenderBackend backend) {
         this.game = game;
         this.loop = loop;
         this.state = state;
+        this.backend = backend;
         input = new GameInput();
-        buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        scheduler = new LoopScheduler();
         
         Dimension d = new Dimension(width, height);
         setSize(d);
         setPreferredSize(d);
+        
+        if(backend == RenderBackend.BUFFER_STRATEGY) {
+            buffer = null;
+            canvas = new Canvas();
+            canvas.setIgnoreRepaint(true);
+            canvas.setSize(d);
+            setLayout(new BorderLayout());
+            add(canvas, BorderLayout.CENTER);
+            canvas.addMouseListener(input);
+            canvas.addMouseMotionListener(input);
+        } else {
+            buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            canvas = null;
+            addMouseListener(input);
+            addMouseMotionListener(input);
+        }
     }
 
     public Game getGame() {
         return game;
     }
 
+    public RenderBackend getBackend() {
+        return backend;
+    }
+
+    public LoopScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Sets the scheduler that paces the loop. By default, the loop waits for the next update.
+     * @param scheduler The scheduler or null to iterate without waiting.
+     */
+    public void setScheduler(LoopScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
     @Override
     public void paint(Graphics g) {
         if(g != null && buffer != null) {
             renderGraphics(g);
+        } else {
+            super.paint(g);
         }
     }
 
@@ -65,30 +145,141 @@ public class GameScreen extends JPanel {
     
     /**
      * Starts the game. This method creates a loop that runs as long as the game is running.
-     * The loop invokes the game.update and the loop.iterate methods in each iteration.
+     * The loop invokes the game.update and the loop.iterate methods in each iteration. The
+     * scheduler lets the thread wait between the iterations instead of spinning.
      */
     public void start() {
         input.mouseInside = getParent().contains( MouseInfo.getPointerInfo().getLocation() );
-	addMouseListener( input );
-	addMouseMotionListener( input );
-        
-        resetGraphics();
         
         game.start();
         
         loop.onStart(state);
+        if(scheduler != null) {
+            scheduler.start();
+        }
+        
+        if(backend == RenderBackend.BUFFER_STRATEGY) {
+            runWithBufferStrategy();
+        } else {
+            runWithImage();
+        }
+        
+        loop.onStop(state);
+        state.reset();
+        input.reset();
+    }
+    
+    /**
+     * Runs the loop with the IMAGE backend. The graphics context of the buffer is created
+     * once and disposed when the game stops.
+     */
+    private void runWithImage() {
+        g2 = buffer.createGraphics();
+        resetGraphics();
         
         while(game.isRunning()) {
+            awaitIteration();
+            long frameStart = System.nanoTime();
             if(loop.iterate(game, state, input, g2)) {
+                long presentStart = System.nanoTime();
                 renderGraphics(getGraphics());
                 resetGraphics();
+                long frameEnd = System.nanoTime();
+                state.drawChrono.addTime(frameEnd - presentStart);
+                state.metrics.record(Metric.PRESENT, frameEnd - presentStart);
+                state.metrics.record(Metric.FRAME, frameEnd - frameStart);
+                recordInputLatency(frameEnd);
             }
         }
         
-        state.reset();
-        input.clear();
+        g2.dispose();
+        g2 = null;
+    }
+    
+    /**
+     * Runs the loop with the BUFFER_STRATEGY backend. The loop iterates without graphics
+     * context and a graphics context of the back buffer is only created if a frame is ready.
+     * The frame is drawn again as long as the contents of the back buffer were restored or
+     * lost.
+     */
+    private void runWithBufferStrategy() {
+        BufferStrategy strategy = createBufferStrategy();
+        
+        while(game.isRunning()) {
+            awaitIteration();
+            long frameStart = System.nanoTime();
+            if(!loop.iterate(game, state, input, null)) {
+                continue;
+            }
+            
+            boolean drawn;
+            long presentTime = 0;
+            do {
+                do {
+                    g2 = (Graphics2D) strategy.getDrawGraphics();
+                    resetGraphics();
+                    drawn = loop.draw(game, state, g2);
+                    g2.dispose();
+                } while(strategy.contentsRestored());
+                
+                if(drawn) {
+                    long presentStart = System.nanoTime();
+                    strategy.show();
+                    presentTime += System.nanoTime() - presentStart;
+                }
+            } while(strategy.contentsLost());
+            
+            if(drawn) {
+                long syncStart = System.nanoTime();
+                Toolkit.getDefaultToolkit().sync();
+                long frameEnd = System.nanoTime();
+                presentTime += frameEnd - syncStart;
+                state.drawChrono.addTime(presentTime);
+                state.metrics.record(Metric.PRESENT, presentTime);
+                state.metrics.record(Metric.FRAME, frameEnd - frameStart);
+                recordInputLatency(frameEnd);
+            }
+        }
+        
+        g2 = null;
+        strategy.dispose();
+    }
+    
+    /**
+     * Records the input latency of a presented frame, if the frame shows new input.
+     * @param presentTime The time when the frame was presented.
+     */
+    private void recordInputLatency(long presentTime) {
+        long captureTime = state.takeFrameInputTime();
+        if(captureTime != GameState.NO_INPUT) {
+            state.metrics.record(Metric.INPUT_LATENCY, presentTime - captureTime);
+        }
+    }
+    
+    /**
+     * Waits for the next iteration of the loop, if a scheduler is set.
+     */
+    private void awaitIteration() {
+        if(scheduler != null) {
+            scheduler.await(loop, state);
+        }
     }
     
+    /**
+     * Creates the buffer strategy of the canvas. This method requests accelerated page
+     * flipping and falls back to the default strategy if it is not supported.
+     * @return The buffer strategy.
+     */
+    private BufferStrategy createBufferStrategy() {
+        BufferCapabilities flipping = new BufferCapabilities(new ImageCapabilities(true),
+                new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED);
+        try {
+            canvas.createBufferStrategy(NUM_BUFFERS, flipping);
+        } catch (AWTException ex) {
+            canvas.createBufferStrategy(NUM_BUFFERS);
+        }
+        return canvas.getBufferStrategy();
+    }
     
     /**
      * Draws the buffer to the screen.
@@ -100,13 +291,12 @@ public class GameScreen extends JPanel {
     }
     
     /**
-     * Resets the graphics context of the buffer.
+     * Clears the graphics context for the next frame and sets the hints of the render profile.
      */
     private void resetGraphics() {
-        g2 = (Graphics2D) buffer.getGraphics();
         g2.setColor(getBackground());
         g2.fillRect(0, 0, getWidth(), getHeight());
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        state.getRenderProfile().apply(Layer.SHAPES, g2);
     }
     
     /**
@@ -5,6 +5,7 @@
  */
 package ch.windmill.engine;
 
+import ch.windmill.engine.metrics.LoopMetrics;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,13 +25,68 @@ public class GameState {
     public long lastTime;
     public Chronograph updateChrono;
     public Chronograph drawChrono;
+    public final LoopMetrics metrics;
+    private Clock clock = Clock.SYSTEM;
+    private volatile RenderProfile renderProfile = RenderProfile.BALANCED;
+    
+    /**
+     * The value of the input times if there is no input.
+     */
+    public static final long NO_INPUT = Long.MIN_VALUE;
+    
+    /**
+     * The capture time of the oldest input that is handled but not drawn yet.
+     */
+    private long inputTime = NO_INPUT;
+    
+    /**
+     * The capture time of the oldest input that the last drawn frame shows.
+     */
+    private long frameInputTime = NO_INPUT;
     
     /**
      * Creates a new GameState object.
      */
     public GameState() {
+        this(new LoopMetrics());
+    }
+    
+    /**
+     * Creates a new GameState object that records to the given metrics. The metrics can be
+     * shared by the states of several games.
+     * @param metrics The metrics of the game loop.
+     */
+    public GameState(LoopMetrics metrics) {
         updateChrono = new Chronograph(500, "Updates per second (Tick rate)", TimeUnit.MILLISECONDS);
         drawChrono = new Chronograph(500, "Draws per second (Frame rate)", TimeUnit.MILLISECONDS);
+        this.metrics = metrics;
+    }
+    
+    public Clock getClock() {
+        return clock;
+    }
+    
+    public RenderProfile getRenderProfile() {
+        return renderProfile;
+    }
+    
+    /**
+     * Sets the render profile of the frames. The profile can be changed while the game runs,
+     * the next frame uses the new profile. The profile is shown as configuration of the
+     * metrics.
+     * @param renderProfile The render profile.
+     */
+    public void setRenderProfile(RenderProfile renderProfile) {
+        this.renderProfile = renderProfile;
+        metrics.setConfiguration("render profile " + renderProfile);
+    }
+    
+    /**
+     * Sets the clock that is used for all time calculations of this state.
+     * @param clock The clock to read the time from.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
     }
     
     /**
@@ -40,7 +96,7 @@ public class GameState {
      */
     public long tick() {
         lastTime = currentTime;
-        currentTime = System.nanoTime();
+        currentTime = clock.nanoTime();
         return (currentTime - lastTime);
     }
     
@@ -49,7 +105,7 @@ public class GameState {
      * @return The delta time.
      */
     public long getElapsedSinceTick() {
-	return (System.nanoTime() - currentTime);
+	return (clock.nanoTime() - currentTime);
     }
     
     /**
@@ -68,7 +124,7 @@ public class GameState {
      * @return The current time in nanos.
      */
     public long reset() {
-        long resetT = System.nanoTime();
+        long resetT = clock.nanoTime();
         
         startTime = resetT;
         currentTime = resetT;
@@ -76,6 +132,8 @@ public class GameState {
         
         updateChrono.reset();
         drawChrono.reset();
+        inputTime = NO_INPUT;
+        frameInputTime = NO_INPUT;
         
         return resetT;
     }
@@ -93,4 +151,36 @@ public class GameState {
     public void drawChronoCycle() {
         drawChrono.cycle();
     }
+    
+    /**
+     * Marks that the game handled input that was captured at the given time. Only the
+     * oldest input until the next drawn frame is kept.
+     * @param captureTime The capture time of the input in nanoseconds of System.nanoTime.
+     */
+    public void inputHandled(long captureTime) {
+        if(inputTime == NO_INPUT) {
+            inputTime = captureTime;
+        }
+    }
+    
+    /**
+     * Marks that a frame is drawn. The frame shows all input that was handled before.
+     */
+    public void inputDrawn() {
+        if(inputTime != NO_INPUT) {
+            frameInputTime = inputTime;
+            inputTime = NO_INPUT;
+        }
+    }
+    
+    /**
+     * Gets the capture time of the oldest input that the last drawn frame shows and removes
+     * it. The screen invokes this method when the frame is presented.
+     * @return The capture time in nanoseconds or NO_INPUT if the frame shows no new input.
+     */
+    public long takeFrameInputTime() {
+        long time = frameInputTime;
+        frameInputTime = NO_INPUT;
+        return time;
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+import ch.windmill.engine.input.GameInput;
+import ch.windmill.engine.input.InputPlayback;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs a game without a screen. The game loop is driven by a virtual clock that
+ * is advanced by a fixed step before every iteration. The loop gets no graphics context, so
+ * nothing is drawn. A HeadlessRunner runs the game as fast as the CPU allows and can be used
+ * on servers without a display. A recorded input can be replayed tick by tick.
+ * @author Cyrill Jauner
+ */
+public class HeadlessRunner {
+    
+    private final Game game;
+    private final GameState state;
+    private final Loopable loop;
+    private final GameInput input;
+    private final VirtualClock clock;
+    private final long step;
+    
+    /**
+     * Creates a new HeadlessRunner object.
+     * @param game The game to run.
+     * @param state The state of the game.
+     * @param loop The gameloop.
+     * @param step The time that passes in each iteration.
+     * @param unit The time unit of the step parameter.
+     */
+    public HeadlessRunner(Game game, GameState state, Loopable loop, long step, TimeUnit unit) {
+        this.game = game;
+        this.state = state;
+        this.loop = loop;
+        this.step = unit.toNanos(step);
+        input = new GameInput();
+        clock = new VirtualClock();
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    public GameInput getInput() {
+        return input;
+    }
+
+    public VirtualClock getClock() {
+        return clock;
+    }
+    
+    /**
+     * Starts the game and the loop. The game state uses the virtual clock of this runner.
+     */
+    public void start() {
+        state.setClock(clock);
+        game.start();
+        loop.onStart(state);
+    }
+    
+    /**
+     * Advances the virtual clock by one step and invokes one iteration of the loop.
+     * @return The return value of the loop iteration.
+     */
+    public boolean step() {
+        clock.advance(step);
+        return loop.iterate(game, state, input, null);
+    }
+    
+    /**
+     * Starts the game and iterates the loop as long as the game is running, but at most
+     * the given number of times.
+     * @param maxIterations The max number of loop iterations.
+     * @return The number of loop iterations.
+     */
+    public long run(long maxIterations) {
+        start();
+        
+        long iterations = 0;
+        while(game.isRunning() && iterations < maxIterations) {
+            step();
+            iterations++;
+        }
+        
+        input.reset();
+        return iterations;
+    }
+    
+    /**
+     * Starts the game and replays the given input. The game gets exactly one input and one
+     * update for every recorded tick. The loop is not used for a replay, the elapsed time
+     * of each update is the step of this runner.
+     * @param playback The recorded input.
+     * @return The number of replayed ticks. This is less than the number of recorded ticks
+     * if the game stops before the end of the recording.
+     */
+    public long replay(InputPlayback playback) {
+        state.setClock(clock);
+        game.start();
+        state.reset();
+        state.setElapsed(step);
+        
+        long ticks = 0;
+        while(game.isRunning() && playback.hasNext()) {
+            clock.advance(step);
+            state.tick();
+            playback.next(input);
+            game.input(input);
+            input.clear();
+            
+            state.updateChronoCycle();
+            game.update(state);
+            ticks++;
+        }
+        
+        input.reset();
+        return ticks;
+    }
+}
@@ -6,6 +6,7 @@
 package ch.windmill.engine;
 
 import ch.windmill.engine.input.GameInput;
+import ch.windmill.engine.metrics.LoopMetrics.Metric;
 import java.awt.Graphics2D;
 import java.util.concurrent.TimeUnit;
 
@@ -30,6 +31,7 @@ public class InterpolatedLoop implements Loopable {
     
     @Override
     public void onStart(GameState state) {
+        time = 0;
         state.reset();
         state.setElapsed(frameRate);
     }
@@ -41,8 +43,17 @@ public class InterpolatedLoop implements Loopable {
         int updateCount = 0;
         
         while (time >= frameRate && updateCount < maxUpdates) {
+            long inputStart = System.nanoTime();
+            input.poll();
+            if(input.getSnapshot().size() > 0) {
+                long captureTime = input.getSnapshot().getTime(0);
+                state.inputHandled(captureTime);
+                state.metrics.record(Metric.INPUT_AGE, inputStart - captureTime);
+            }
             game.input(input);
             input.clear();
+            long updateStart = System.nanoTime();
+            state.metrics.record(Metric.INPUT, updateStart - inputStart);
             
             if(!game.isRunning()) {
                 return false;
@@ -50,6 +61,9 @@ public class InterpolatedLoop implements Loopable {
             
             state.updateChronoCycle();
             game.update(state);
+            long updateEnd = System.nanoTime();
+            state.metrics.record(Metric.UPDATE, updateEnd - updateStart);
+            state.metrics.record(Metric.TICK, updateEnd - inputStart);
             
             if(!game.isRunning()) {
                 return false;
@@ -63,12 +77,30 @@ public class InterpolatedLoop implements Loopable {
         state.forward = state.interpolate * state.seconds;
 	state.backward = state.forward - state.seconds;
         
+        if(g2 != null) {
+            return draw(game, state, g2);
+        }
+        
+        return true;
+    }
+    
+    @Override
+    public boolean draw(Game game, GameState state, Graphics2D g2) {
         state.drawChronoCycle();
+        state.inputDrawn();
+        long drawStart = System.nanoTime();
         game.draw(state, g2);
-        
+        long drawTime = System.nanoTime() - drawStart;
+        state.drawChrono.addTime(drawTime);
+        state.metrics.record(Metric.DRAW, drawTime);
         return true;
     }
     
+    @Override
+    public long nanosUntilNextUpdate(GameState state) {
+        return Math.max(0, frameRate - time - state.getElapsedSinceTick());
+    }
+    
     public float getStateInterpolation() {
         return (float) ((double) time / (double) frameRate);
     }
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+import ch.windmill.engine.metrics.LoopMetrics.Metric;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class paces a game loop. Before every iteration, the scheduler waits until the next
+ * update of the loop or the next frame is due. Most of the time is spent parked, only the
+ * last part of the wait spins with Thread.yield, because a parked thread may wake up late.
+ * The delay between a deadline and the wake up is recorded as WAKE_JITTER in the metrics
+ * of the game state.
+ * @author Cyrill Jauner
+ */
+public class LoopScheduler {
+    
+    /**
+     * The default time that is spun before a deadline.
+     */
+    public static final long DEFAULT_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(250);
+    
+    private final long frameNanos;
+    private final long spinNanos;
+    private long nextFrame;
+    
+    /**
+     * Creates a new LoopScheduler object that waits for the next update of the loop.
+     */
+    public LoopScheduler() {
+        this(0, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Creates a new LoopScheduler object that waits for the next update or frame. The
+     * frames are drawn between updates, so a loop with interpolation draws smooth frames.
+     * @param framePeriod The time between two frames or 0 to draw only on updates.
+     * @param unit The time unit of the frame period.
+     */
+    public LoopScheduler(long framePeriod, TimeUnit unit) {
+        this(framePeriod, unit, DEFAULT_SPIN_NANOS);
+    }
+    
+    /**
+     * Creates a new LoopScheduler object.
+     * @param framePeriod The time between two frames or 0 to draw only on updates.
+     * @param unit The time unit of the frame period.
+     * @param spinNanos The time that is spun before a deadline.
+     */
+    public LoopScheduler(long framePeriod, TimeUnit unit, long spinNanos) {
+        frameNanos = unit.toNanos(framePeriod);
+        this.spinNanos = spinNanos;
+        nextFrame = 0;
+    }
+    
+    /**
+     * Resets the frame deadline. This method should be invoked when the loop starts.
+     */
+    public void start() {
+        nextFrame = System.nanoTime() + frameNanos;
+    }
+    
+    /**
+     * Waits until the next update of the loop or the next frame is due.
+     * @param loop The game loop.
+     * @param state The state of the game loop.
+     */
+    public void await(Loopable loop, GameState state) {
+        long now = System.nanoTime();
+        long deadline = now + loop.nanosUntilNextUpdate(state);
+        if(frameNanos > 0) {
+            deadline = Math.min(deadline, nextFrame);
+        }
+        
+        if(deadline - now > 0) {
+            long remaining;
+            while((remaining = deadline - System.nanoTime()) > spinNanos) {
+                LockSupport.parkNanos(remaining - spinNanos);
+            }
+            while(deadline - System.nanoTime() > 0) {
+                Thread.yield();
+            }
+            now = System.nanoTime();
+            state.metrics.record(Metric.WAKE_JITTER, now - deadline);
+        }
+        
+        if(frameNanos > 0 && now - nextFrame >= 0) {
+            nextFrame += frameNanos;
+            if(now - nextFrame >= 0) {
+                nextFrame = now + frameNanos;
+            }
+        }
+    }
+}
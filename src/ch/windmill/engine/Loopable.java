@@ -17,13 +17,44 @@ public interface Loopable {
      */
     void onStart(GameState state);
     
+    /**
+     * Stops this loop. This method is invoked when the game stopped. A loop that uses
+     * other threads stops them.
+     * @param state The current application state.
+     */
+    default void onStop(GameState state) {
+    }
+    
     /**
      * Invokes one iteration step. This method should contain routines of the game loop.
      * @param game The running application.
      * @param state The current application state.
      * @param input The game input object.
-     * @param g2 Graphics context.
-     * @return 
+     * @param g2 Graphics context. If this is null, the iteration does not draw.
+     * @return True if a frame was drawn or, without graphics context, if a frame is ready
+     * to be drawn with the draw method.
      */
     boolean iterate(Game game, GameState state, GameInput input, Graphics2D g2);
+    
+    /**
+     * Draws the frame of the last iteration. A screen that acquires its graphics context
+     * only for frames that are drawn iterates without graphics context and invokes this
+     * method afterwards. The method may be invoked again for the same frame, if the
+     * contents of the graphics context were lost.
+     * @param game The running application.
+     * @param state The current application state.
+     * @param g2 Graphics context.
+     * @return True if a frame was drawn.
+     */
+    boolean draw(Game game, GameState state, Graphics2D g2);
+    
+    /**
+     * Gets the time until the next update is due. A loop scheduler waits this time before
+     * the next iteration. The default is 0, i.e. the loop iterates without waiting.
+     * @param state The current application state.
+     * @return The time until the next update in nanoseconds.
+     */
+    default long nanosUntilNextUpdate(GameState state) {
+        return 0;
+    }
 }
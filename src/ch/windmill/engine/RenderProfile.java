@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * A render profile defines the rendering hints of a frame. The hints are set per layer, so
+ * a game only pays for antialiasing where it is visible. The antialiasing of the SHAPES layer
+ * smooths curved edges, e.g. of balls. Axis-aligned rectangles on whole pixels look the same
+ * without antialiasing, so the RECTS layer only uses it in the QUALITY profile.
+ * @author Cyrill Jauner
+ */
+public enum RenderProfile {
+    FAST(RenderingHints.VALUE_ANTIALIAS_OFF, RenderingHints.VALUE_ANTIALIAS_OFF,
+            RenderingHints.VALUE_RENDER_SPEED, RenderingHints.VALUE_STROKE_DEFAULT,
+            RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR),
+    BALANCED(RenderingHints.VALUE_ANTIALIAS_ON, RenderingHints.VALUE_ANTIALIAS_OFF,
+            RenderingHints.VALUE_RENDER_DEFAULT, RenderingHints.VALUE_STROKE_NORMALIZE,
+            RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR),
+    QUALITY(RenderingHints.VALUE_ANTIALIAS_ON, RenderingHints.VALUE_ANTIALIAS_ON,
+            RenderingHints.VALUE_RENDER_QUALITY, RenderingHints.VALUE_STROKE_PURE,
+            RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    
+    /**
+     * The layers of a frame.
+     */
+    public enum Layer {
+        /**
+         * Shapes with curved or diagonal edges, e.g. balls. A frame starts with this layer.
+         */
+        SHAPES,
+        /**
+         * Axis-aligned rectangles, e.g. bricks and the paddle.
+         */
+        RECTS,
+        /**
+         * Images, e.g. cached layers.
+         */
+        IMAGES
+    }
+    
+    private final Object shapesAntialiasing, rectsAntialiasing;
+    private final Object rendering, strokeControl, interpolation;
+    
+    RenderProfile(Object shapesAntialiasing, Object rectsAntialiasing, Object rendering,
+            Object strokeControl, Object interpolation) {
+        this.shapesAntialiasing = shapesAntialiasing;
+        this.rectsAntialiasing = rectsAntialiasing;
+        this.rendering = rendering;
+        this.strokeControl = strokeControl;
+        this.interpolation = interpolation;
+    }
+    
+    /**
+     * Sets the rendering hints of a layer.
+     * @param layer The layer that is drawn next.
+     * @param g2 The graphics context.
+     */
+    public void apply(Layer layer, Graphics2D g2) {
+        Object antialiasing;
+        switch(layer) {
+            case SHAPES:
+                antialiasing = shapesAntialiasing;
+                break;
+            case RECTS:
+                antialiasing = rectsAntialiasing;
+                break;
+            default:
+                antialiasing = RenderingHints.VALUE_ANTIALIAS_OFF;
+                break;
+        }
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, rendering);
+        g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, strokeControl);
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+    }
+}
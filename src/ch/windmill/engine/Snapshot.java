@@ -0,0 +1,49 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+/**
+ * A snapshot holds the state of a game after an update, as far as it is needed to draw a
+ * frame. The simulation thread of a ThreadedLoop writes the snapshots and the render thread
+ * draws them. A game extends this class with its own state.
+ * @author Cyrill Jauner
+ */
+public class Snapshot {
+    
+    /**
+     * The number of the snapshot. It is incremented for every published snapshot.
+     */
+    public long sequence;
+    
+    /**
+     * The time of the update of this snapshot in nanoseconds of the game clock.
+     */
+    public long tickTime;
+    
+    /**
+     * The capture time of the oldest input that was handled since the last snapshot or
+     * GameState.NO_INPUT.
+     */
+    public long inputTime = GameState.NO_INPUT;
+}
@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+import java.awt.Graphics2D;
+
+/**
+ * A game that can be run by a ThreadedLoop. The game is updated by the simulation thread,
+ * which writes the drawable state into snapshots. The render thread only draws snapshots and
+ * never reads the game itself.
+ * @author Cyrill Jauner
+ * @param <S> The type of the snapshots.
+ */
+public interface SnapshotGame<S extends Snapshot> extends Game {
+    
+    /**
+     * Creates an empty snapshot. A loop creates all snapshots before the game starts.
+     * @return A new snapshot.
+     */
+    S createSnapshot();
+    
+    /**
+     * Writes the current state of the game into a snapshot. This method is invoked by the
+     * simulation thread after the updates.
+     * @param snapshot The snapshot to write to.
+     */
+    void writeSnapshot(S snapshot);
+    
+    /**
+     * Draws a snapshot. This method is invoked by the render thread.
+     * @param state The state of the render thread. The interpolation is set.
+     * @param snapshot The snapshot to draw.
+     * @param g2 The graphics context.
+     */
+    void drawSnapshot(GameState state, S snapshot, Graphics2D g2);
+}
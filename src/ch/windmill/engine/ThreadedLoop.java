@@ -0,0 +1,264 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+import ch.windmill.engine.input.GameInput;
+import ch.windmill.engine.metrics.LoopMetrics.Metric;
+import java.awt.Graphics2D;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class represents a gameloop with two threads. A simulation thread handles the input
+ * and updates the game with a fixed frame rate. After the updates, it writes the state of the
+ * game into a snapshot of a triple buffer. The thread that iterates the loop only draws the
+ * latest snapshot and interpolates between the last and the current positions in it, like the
+ * InterpolatedLoop does. So a slow frame does not delay the updates and the reverse. The game
+ * must be a SnapshotGame. The simulation thread is started by the first iteration and stopped
+ * by the onStop method or when the game stops. The loop needs a clock with the real time.
+ * @author Cyrill Jauner
+ */
+public class ThreadedLoop implements Loopable {
+    
+    public final long frameRate;
+    public final int maxUpdates;
+    private Simulation<?> simulation;
+    
+    /**
+     * Creates a new ThreadedLoop object.
+     * @param maxUpdates The max number of updates before a snapshot is written.
+     * @param frameRate The time between two updates.
+     * @param timeUnit The time unit of the frame rate.
+     */
+    public ThreadedLoop(int maxUpdates, long frameRate, TimeUnit timeUnit) {
+        this.maxUpdates = maxUpdates;
+        this.frameRate = timeUnit.toNanos(frameRate);
+    }
+
+    @Override
+    public void onStart(GameState state) {
+        onStop(state);
+        state.reset();
+        state.setElapsed(frameRate);
+    }
+
+    @Override
+    public void onStop(GameState state) {
+        if(simulation != null) {
+            simulation.stop();
+            simulation = null;
+        }
+    }
+
+    @Override
+    public boolean iterate(Game game, GameState state, GameInput input, Graphics2D g2) {
+        if(!(game instanceof SnapshotGame)) {
+            throw new IllegalArgumentException("A threaded loop needs a SnapshotGame.");
+        }
+        if(simulation == null) {
+            simulation = start((SnapshotGame<?>) game, state, input);
+        }
+        state.tick();
+        if(!simulation.prepare(state)) {
+            return false;
+        }
+        return g2 == null || simulation.render(state, g2);
+    }
+
+    @Override
+    public boolean draw(Game game, GameState state, Graphics2D g2) {
+        return simulation != null && simulation.render(state, g2);
+    }
+    
+    @Override
+    public long nanosUntilNextUpdate(GameState state) {
+        if(simulation == null) {
+            return 0;
+        }
+        return Math.max(0, simulation.lastTickTime + frameRate - state.getClock().nanoTime());
+    }
+    
+    /**
+     * Creates and starts the simulation thread of a game.
+     */
+    private <S extends Snapshot> Simulation<S> start(SnapshotGame<S> game, GameState state, GameInput input) {
+        Simulation<S> s = new Simulation<>(game, state, input);
+        s.thread.start();
+        return s;
+    }
+    
+    /**
+     * The simulation thread and the snapshots of a running game.
+     * @param <S> The type of the snapshots.
+     */
+    private class Simulation<S extends Snapshot> implements Runnable {
+        
+        private final SnapshotGame<S> game;
+        private final GameState state;
+        private final GameInput input;
+        private final TripleBuffer<S> snapshots;
+        private final Thread thread;
+        private volatile boolean stopped;
+        
+        /**
+         * The last acquired snapshot with its sequence and update time. They are only used by
+         * the render thread.
+         */
+        private long lastSequence;
+        private long lastTickTime;
+        private S current;
+        
+        Simulation(SnapshotGame<S> game, GameState renderState, GameInput input) {
+            this.game = game;
+            this.input = input;
+            snapshots = new TripleBuffer<>(game::createSnapshot);
+            state = new GameState(renderState.metrics);
+            state.setClock(renderState.getClock());
+            state.updateChrono = renderState.updateChrono;
+            thread = new Thread(this, "Simulation");
+            thread.setDaemon(true);
+            stopped = false;
+            lastSequence = 0;
+            lastTickTime = renderState.getClock().nanoTime();
+        }
+
+        @Override
+        public void run() {
+            state.reset();
+            state.setElapsed(frameRate);
+            Clock clock = state.getClock();
+            long next = clock.nanoTime();
+            long sequence = 0;
+            
+            while(!stopped && game.isRunning()) {
+                long now = clock.nanoTime();
+                if(next - now > 0) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+                
+                int updateCount = 0;
+                while(next - now <= 0 && updateCount < maxUpdates && game.isRunning()) {
+                    update();
+                    next += frameRate;
+                    updateCount++;
+                }
+                if(next - now <= 0) {
+                    next = now + frameRate;
+                }
+                
+                S snapshot = snapshots.getBack();
+                game.writeSnapshot(snapshot);
+                snapshot.sequence = ++sequence;
+                snapshot.tickTime = next - frameRate;
+                state.inputDrawn();
+                snapshot.inputTime = state.takeFrameInputTime();
+                snapshots.publish();
+            }
+        }
+        
+        /**
+         * Handles the input and updates the game once.
+         */
+        private void update() {
+            long inputStart = System.nanoTime();
+            input.poll();
+            if(input.getSnapshot().size() > 0) {
+                long captureTime = input.getSnapshot().getTime(0);
+                state.inputHandled(captureTime);
+                state.metrics.record(Metric.INPUT_AGE, inputStart - captureTime);
+            }
+            game.input(input);
+            input.clear();
+            long updateStart = System.nanoTime();
+            state.metrics.record(Metric.INPUT, updateStart - inputStart);
+            
+            state.updateChronoCycle();
+            game.update(state);
+            long updateEnd = System.nanoTime();
+            state.metrics.record(Metric.UPDATE, updateEnd - updateStart);
+            state.metrics.record(Metric.TICK, updateEnd - inputStart);
+        }
+        
+        /**
+         * Acquires the latest snapshot and sets the interpolation of the render state. This
+         * method is invoked by the render thread.
+         * @param renderState The state of the render thread.
+         * @return True if there is a snapshot to draw.
+         */
+        boolean prepare(GameState renderState) {
+            S snapshot = snapshots.acquire();
+            if(snapshot == null) {
+                return false;
+            }
+            current = snapshot;
+            if(snapshot.sequence != lastSequence) {
+                lastSequence = snapshot.sequence;
+                lastTickTime = snapshot.tickTime;
+                if(snapshot.inputTime != GameState.NO_INPUT) {
+                    renderState.inputHandled(snapshot.inputTime);
+                }
+            }
+            
+            float interpolate = (float) ((double) (renderState.currentTime - snapshot.tickTime) / frameRate);
+            renderState.interpolate = Math.max(0, Math.min(1, interpolate));
+            renderState.forward = renderState.interpolate * renderState.seconds;
+            renderState.backward = renderState.forward - renderState.seconds;
+            return true;
+        }
+        
+        /**
+         * Draws the snapshot of the last prepare. This method is invoked by the render thread.
+         * @param renderState The state of the render thread.
+         * @param g2 The graphics context.
+         * @return True if a snapshot was drawn.
+         */
+        boolean render(GameState renderState, Graphics2D g2) {
+            if(current == null) {
+                return false;
+            }
+            renderState.drawChronoCycle();
+            renderState.inputDrawn();
+            long drawStart = System.nanoTime();
+            game.drawSnapshot(renderState, current, g2);
+            long drawTime = System.nanoTime() - drawStart;
+            renderState.drawChrono.addTime(drawTime);
+            renderState.metrics.record(Metric.DRAW, drawTime);
+            return true;
+        }
+        
+        /**
+         * Stops the simulation thread and waits until it ends.
+         */
+        void stop() {
+            stopped = true;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A triple buffer passes objects from one writer thread to one reader thread without locks.
+ * The writer fills the back buffer and publishes it, the reader acquires the latest published
+ * buffer. Publishing swaps the back buffer with the middle buffer, acquiring swaps the front
+ * buffer with the middle buffer if it was published since. So neither thread waits for the
+ * other and the buffers are reused. The swaps are atomic, so everything the writer wrote to a
+ * buffer before it published it is visible to the reader.
+ * @author Cyrill Jauner
+ * @param <T> The type of the buffers.
+ */
+public class TripleBuffer<T> {
+    
+    /**
+     * The bit of the middle index that marks a published buffer.
+     */
+    private static final int PUBLISHED = 4;
+    private static final int INDEX = 3;
+    
+    private final Object[] buffers;
+    private final AtomicInteger middle;
+    private int back, front;
+    private boolean acquired;
+    
+    /**
+     * Creates a new TripleBuffer object.
+     * @param factory Creates the three buffers.
+     */
+    public TripleBuffer(Supplier<? extends T> factory) {
+        buffers = new Object[] {factory.get(), factory.get(), factory.get()};
+        back = 0;
+        middle = new AtomicInteger(1);
+        front = 2;
+        acquired = false;
+    }
+    
+    /**
+     * Gets the back buffer. This method must only be invoked by the writer.
+     * @return The buffer to write to.
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+    
+    /**
+     * Publishes the back buffer. The writer gets a new back buffer. This method must only be
+     * invoked by the writer.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | PUBLISHED) & INDEX;
+    }
+    
+    /**
+     * Gets the latest published buffer. The buffer is not changed by the writer until the
+     * reader acquires again. This method must only be invoked by the reader.
+     * @return The latest published buffer or null if no buffer was published yet.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if((middle.get() & PUBLISHED) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+            acquired = true;
+        }
+        return acquired ? (T) buffers[front] : null;
+    }
+}
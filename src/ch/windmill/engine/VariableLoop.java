@@ -6,6 +6,7 @@
 package ch.windmill.engine;
 
 import ch.windmill.engine.input.GameInput;
+import ch.windmill.engine.metrics.LoopMetrics.Metric;
 import java.awt.Graphics2D;
 
 /**
@@ -22,15 +23,31 @@ public class VariableLoop implements Loopable {
     public boolean iterate(Game app, GameState state, GameInput input, Graphics2D g2) {
         state.tick();
         state.updateChronoCycle();
+        long updateStart = System.nanoTime();
         app.update(state);
+        long updateTime = System.nanoTime() - updateStart;
+        state.metrics.record(Metric.UPDATE, updateTime);
+        state.metrics.record(Metric.TICK, updateTime);
         
         if(!app.isRunning()) {
             return false;
         }
         
+        if(g2 != null) {
+            return draw(app, state, g2);
+        }
+        
+        return true;
+    }
+
+    @Override
+    public boolean draw(Game app, GameState state, Graphics2D g2) {
         state.drawChronoCycle();
+        long drawStart = System.nanoTime();
         app.draw(state, g2);
-        
+        long drawTime = System.nanoTime() - drawStart;
+        state.drawChrono.addTime(drawTime);
+        state.metrics.record(Metric.DRAW, drawTime);
         return true;
     }
     
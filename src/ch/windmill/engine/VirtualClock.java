@@ -0,0 +1,54 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+/**
+ * A VirtualClock is a clock that only moves forward when it is advanced. This allows
+ * to run a game independent of the wall-clock time.
+ * @author Cyrill Jauner
+ */
+public class VirtualClock implements Clock {
+    
+    private long time;
+    
+    /**
+     * Creates a new VirtualClock object that starts at 0.
+     */
+    public VirtualClock() {
+        time = 0;
+    }
+    
+    /**
+     * Advances the time of this clock.
+     * @param nanos The number of nanoseconds to advance.
+     */
+    public void advance(long nanos) {
+        time += nanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return time;
+    }
+}
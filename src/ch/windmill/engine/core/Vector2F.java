@@ -27,7 +27,8 @@ package ch.windmill.engine.core;
  * This class represents a 2 dimensional vector with float coordinates.
  * @author Cyrill Jauner
  */
-public class Vector2F {
+@SuppressWarnings("strictfp") // The build targets Java 8, where strictfp keeps float results identical on all JVMs.
+public strictfp class Vector2F {
     
     public float x, y;
     
@@ -78,6 +79,19 @@ public class Vector2F {
         return new Vector2F(v1.x - v2.x, v1.y - v2.y);
     }
     
+    /**
+     * Stores v1 subtracted with v2 in the out vector.
+     * @param v1 vector 1.
+     * @param v2 vector 2.
+     * @param out The vector to store the result. May be v1 or v2.
+     * @return The out vector.
+     */
+    public static Vector2F sub(Vector2F v1, Vector2F v2, Vector2F out) {
+        out.x = v1.x - v2.x;
+        out.y = v1.y - v2.y;
+        return out;
+    }
+    
     /**
      * Returns a new vector that is the dot product of v1 and v2.
      * @param v1
@@ -96,6 +110,15 @@ public class Vector2F {
         this.x = x;
         this.y = y;
     }
+    
+    /**
+     * Sets the coordinates of v to this.
+     * @param v 
+     */
+    public void set(Vector2F v) {
+        x = v.x;
+        y = v.y;
+    }
 
     public double getX() {
         return x;
@@ -122,6 +145,16 @@ public class Vector2F {
         y += v.y;
     }
     
+    /**
+     * Adds v multiplied with d to this.
+     * @param v 
+     * @param d 
+     */
+    public void addScaled(Vector2F v, float d) {
+        x += v.x * d;
+        y += v.y * d;
+    }
+    
     /**
      * Subtracts v to this.
      * @param v 
@@ -5,27 +5,122 @@
  */
 package ch.windmill.engine.input;
 
+import java.awt.GraphicsEnvironment;
 import java.awt.MouseInfo;
+import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import javax.swing.event.MouseInputListener;
 
 /**
- * A GameInput object listens for any game input and saves it.
+ * A GameInput object listens for any game input and saves it. The listener methods only add
+ * the events to a ring buffer. The loop thread takes the events of a tick with the poll method
+ * and updates the mouse fields, so the fields are only written by the loop thread. Every event
+ * has the time when it was captured, so the latency of the input can be measured.
  */
 public class GameInput implements MouseInputListener{
     
+    /**
+     * The number of mouse buttons if there is no mouse, e.g. in a headless environment.
+     */
+    private static final int DEFAULT_NUM_BUTTONS = 3;
+    
+    /**
+     * The max number of events between two ticks.
+     */
+    private static final int NUM_EVENTS = 1024;
+    
+    /**
+     * The max age of an awt event in milliseconds. An older event has a wrong time, e.g.
+     * because the wall clock was changed.
+     */
+    private static final long MAX_EVENT_AGE = 1000;
+    
     public int mouseX, mouseY, mouseDownCount, mouseUpCount;
-    public boolean[] mouseDown = new boolean[ MouseInfo.getNumberOfButtons() ];
-    public boolean[] mouseUp = new boolean[ MouseInfo.getNumberOfButtons() ];
+    public boolean[] mouseDown = new boolean[ numberOfButtons() ];
+    public boolean[] mouseUp = new boolean[ numberOfButtons() ];
     public boolean mouseInside = true;
     public boolean mouseDragging = false;
     public boolean mouseMoving = false;
-    public Queue<GameMouseEvent> mouseEvents = new ConcurrentLinkedQueue<>();
+    private final InputRing events = new InputRing(NUM_EVENTS);
+    private final InputSnapshot snapshot = new InputSnapshot(events.getCapacity());
+    
+    /**
+     * Gets the number of mouse buttons. This method does not fail in a headless environment.
+     * @return The number of mouse buttons.
+     */
+    private static int numberOfButtons() {
+        if(GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_NUM_BUTTONS;
+        }
+        return MouseInfo.getNumberOfButtons();
+    }
+    
+    /**
+     * Gets the ring buffer of this input. Other producers, e.g. a network connection, can
+     * offer events instead of the mouse listener.
+     * @return The ring buffer.
+     */
+    public InputRing getEvents() {
+        return events;
+    }
+    
+    /**
+     * Gets the events of the current tick. The snapshot is filled by the poll method.
+     * @return The events of the current tick.
+     */
+    public InputSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Takes the events that occured since the last poll and updates the mouse fields. This
+     * method must be invoked by the loop thread before the game handles the input.
+     */
+    public void poll() {
+        snapshot.clear();
+        events.drainTo(snapshot);
+        for(int i = 0; i < snapshot.size(); i++) {
+            int button = snapshot.getButton(i);
+            switch(snapshot.getType(i)) {
+                case Move:
+                    mouseDragging = false;
+                    mouseMoving = true;
+                    mouseX = snapshot.getX(i);
+                    mouseY = snapshot.getY(i);
+                    break;
+                case Drag:
+                    mouseDragging = true;
+                    mouseMoving = true;
+                    break;
+                case Press:
+                    if(button < mouseDown.length) {
+                        mouseDown[button] = true;
+                    }
+                    mouseDownCount++;
+                    break;
+                case Release:
+                    if(button < mouseDown.length) {
+                        mouseDown[button] = false;
+                        mouseUp[button] = true;
+                    }
+                    mouseUpCount++;
+                    break;
+                case Enter:
+                    mouseInside = true;
+                    break;
+                case Exit:
+                    mouseInside = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
     
     /**
-     * Removes any input information of this object.
+     * Removes the input information of the current tick. Events that were not polled yet
+     * are kept for the next tick.
      */
     public void clear() {
         mouseDownCount = 0;
@@ -33,57 +128,80 @@ public class GameInput implements MouseInputListener{
         mouseInside = false;
         mouseDragging = false;
         mouseMoving = false;
-        mouseEvents.clear();
+        snapshot.clear();
         
         for(int i = 0; i < mouseUp.length; i++) {
             mouseUp[i] = false;
         }
     }
     
+    /**
+     * Removes any input information of this object, including the events that were not
+     * polled yet.
+     */
+    public void reset() {
+        events.discard();
+        clear();
+    }
+    
+    /**
+     * Adds an event of the given type to the ring buffer.
+     * @param type The type of the event.
+     * @param e The awt mouse event.
+     */
+    private void offer(InputEventType type, MouseEvent e) {
+        events.offer(type, e.getX(), e.getY(), e.getButton(), captureTime(e));
+    }
+    
+    /**
+     * Gets the capture time of an awt event. The time of the event is given in milliseconds
+     * of the wall clock, so the time the event waited in the event queue is subtracted from
+     * System.nanoTime.
+     * @param e The awt event.
+     * @return The capture time in nanoseconds of System.nanoTime.
+     */
+    private static long captureTime(InputEvent e) {
+        long now = System.nanoTime();
+        long waited = System.currentTimeMillis() - e.getWhen();
+        if(waited > 0 && waited < MAX_EVENT_AGE) {
+            return now - TimeUnit.MILLISECONDS.toNanos(waited);
+        }
+        return now;
+    }
+    
     @Override
     public void mouseClicked(MouseEvent e) {
-        mouseEvents.offer(new GameMouseEvent(GameMouseEvent.EventType.Click, e));
+        offer(InputEventType.Click, e);
     }
 
     @Override
     public void mousePressed(MouseEvent e) {
-        mouseDown[ e.getButton() ] = true;
-	mouseDownCount++;
-        mouseEvents.offer(new GameMouseEvent(GameMouseEvent.EventType.Press, e));
+        offer(InputEventType.Press, e);
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
-        mouseDown[ e.getButton() ] = false;
-	mouseUp[ e.getButton() ] = true;
-	mouseUpCount++;
-        mouseEvents.offer(new GameMouseEvent(GameMouseEvent.EventType.Release, e));
+        offer(InputEventType.Release, e);
     }
 
     @Override
     public void mouseEntered(MouseEvent e) {
-        mouseInside = true;
-        mouseEvents.offer(new GameMouseEvent(GameMouseEvent.EventType.Enter, e));
+        offer(InputEventType.Enter, e);
     }
 
     @Override
     public void mouseExited(MouseEvent e) {
-        mouseInside = false;
-        mouseEvents.offer(new GameMouseEvent(GameMouseEvent.EventType.Exit, e));
+        offer(InputEventType.Exit, e);
     }
 
     @Override
     public void mouseDragged(MouseEvent e) {
-        mouseDragging = true;
-        mouseMoving = true;
+        offer(InputEventType.Drag, e);
     }
 
     @Override
     public void mouseMoved(MouseEvent e) {
-        mouseDragging = false;
-	mouseMoving = true;
-	mouseX = e.getX();
-	mouseY = e.getY();
+        offer(InputEventType.Move, e);
     }
     
 }
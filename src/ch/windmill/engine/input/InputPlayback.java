@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.input;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An InputPlayback replays the ticks of an InputRecorder. Every tick sets the mouse fields
+ * of a game input to the recorded values.
+ * @author Cyrill Jauner
+ */
+public class InputPlayback {
+    
+    private final byte[] data;
+    private final int ticks;
+    private int pos;
+    private int tick;
+    private int lastX;
+    
+    /**
+     * Creates a new InputPlayback object.
+     * @param data The recorded ticks.
+     * @param ticks The number of recorded ticks.
+     */
+    InputPlayback(byte[] data, int ticks) {
+        this.data = data;
+        this.ticks = ticks;
+        rewind();
+    }
+    
+    /**
+     * Reads a recording that was written by an InputRecorder.
+     * @param in The stream to read from.
+     * @return A new playback object.
+     * @throws IOException If the stream does not contain a valid recording.
+     */
+    public static InputPlayback readFrom(InputStream in) throws IOException {
+        DataInputStream dataIn = new DataInputStream(in);
+        if(dataIn.readInt() != InputRecorder.MAGIC) {
+            throw new IOException("The stream does not contain an input recording.");
+        }
+        int version = dataIn.readUnsignedByte();
+        if(version != InputRecorder.VERSION) {
+            throw new IOException("The recording version "+version+" is not supported.");
+        }
+        int ticks = dataIn.readInt();
+        byte[] data = new byte[dataIn.readInt()];
+        dataIn.readFully(data);
+        return new InputPlayback(data, ticks);
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+    
+    /**
+     * Wheter there are ticks left to replay.
+     * @return Wheter there are ticks left to replay.
+     */
+    public boolean hasNext() {
+        return tick < ticks;
+    }
+    
+    /**
+     * Sets the mouse fields of the given input to the values of the next tick.
+     * @param input The game input to set.
+     */
+    public void next(GameInput input) {
+        long value = readVarLong();
+        tick++;
+        if((value & 1) == 1) {
+            long zigZag = value >>> 1;
+            int dx = (int) ((zigZag >>> 1) ^ -(zigZag & 1));
+            lastX += dx;
+            input.mouseX = lastX;
+            input.mouseMoving = true;
+        } else {
+            input.mouseMoving = false;
+        }
+    }
+    
+    /**
+     * Reads a value with 7 bits per byte.
+     * @return The value.
+     */
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+    
+    /**
+     * Restarts the playback at the first tick.
+     */
+    public void rewind() {
+        pos = 0;
+        tick = 0;
+        lastX = 0;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.input;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * An InputRecorder records the mouse x-coordinate of a game input once per tick. A tick
+ * without mouse movement is stored in one byte, a tick with movement stores the distance to
+ * the last recorded x-coordinate as a variable length integer. The recording can be written
+ * to a stream and replayed with an InputPlayback.
+ * @author Cyrill Jauner
+ */
+public class InputRecorder {
+    
+    /**
+     * The magic number at the start of a recording.
+     */
+    static final int MAGIC = 0x424B4952;
+    
+    /**
+     * The version of the recording format.
+     */
+    static final int VERSION = 1;
+    
+    private byte[] data;
+    private int length;
+    private int ticks;
+    private int lastX;
+    
+    /**
+     * Creates a new empty InputRecorder object.
+     */
+    public InputRecorder() {
+        data = new byte[1024];
+        length = 0;
+        ticks = 0;
+        lastX = 0;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+    
+    /**
+     * Records the input of one tick.
+     * @param input The game input of the tick.
+     */
+    public void record(GameInput input) {
+        record(input.mouseMoving, input.mouseX);
+    }
+    
+    /**
+     * Records the mouse x-coordinate of one tick.
+     * @param moving Wheter the mouse moved in the tick.
+     * @param x The x-coordinate of the mouse.
+     */
+    public void record(boolean moving, int x) {
+        if(moving) {
+            int dx = x - lastX;
+            lastX = x;
+            long zigZag = ((long) dx << 1) ^ (dx >> 31);
+            writeVarLong((zigZag << 1) | 1);
+        } else {
+            writeVarLong(0);
+        }
+        ticks++;
+    }
+    
+    /**
+     * Appends the given value with 7 bits per byte.
+     * @param value A positive value.
+     */
+    private void writeVarLong(long value) {
+        if(length + 10 > data.length) {
+            data = Arrays.copyOf(data, 2 * data.length);
+        }
+        while((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+    
+    /**
+     * Writes the recording to the given stream.
+     * @param out The stream to write to.
+     * @throws IOException If the recording could not be written.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeByte(VERSION);
+        dataOut.writeInt(ticks);
+        dataOut.writeInt(length);
+        dataOut.write(data, 0, length);
+        dataOut.flush();
+    }
+    
+    /**
+     * Creates a playback of the ticks recorded so far.
+     * @return A new playback object.
+     */
+    public InputPlayback toPlayback() {
+        return new InputPlayback(Arrays.copyOf(data, length), ticks);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded ring buffer of input events for one producer thread, e.g. the event dispatch
+ * thread, and one consumer thread, e.g. the loop thread. The events are stored as primitive
+ * records in preallocated arrays, so offering and draining an event allocates nothing. The
+ * producer writes a record before it publishes the new tail with an ordered write, the
+ * consumer reads the tail before it reads the records. This makes every drained record
+ * visible to the consumer. If the ring is full, new events are dropped and counted.
+ * @author Cyrill Jauner
+ */
+public class InputRing {
+    
+    private final int mask;
+    private final byte[] types;
+    private final int[] xs, ys, buttons;
+    private final long[] times;
+    
+    /**
+     * The sequence of the next record to read. It is only written by the consumer.
+     */
+    private final AtomicLong head;
+    
+    /**
+     * The sequence of the next record to write. It is only written by the producer.
+     */
+    private final AtomicLong tail;
+    private volatile long dropped;
+    
+    /**
+     * Creates a new InputRing object.
+     * @param capacity The max number of events. It is rounded up to a power of two.
+     */
+    public InputRing(int capacity) {
+        if(capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: "+capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if(size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        types = new byte[size];
+        xs = new int[size];
+        ys = new int[size];
+        buttons = new int[size];
+        times = new long[size];
+        head = new AtomicLong();
+        tail = new AtomicLong();
+    }
+    
+    public int getCapacity() {
+        return mask + 1;
+    }
+    
+    /**
+     * Gets the number of events that were dropped because the ring was full.
+     * @return The number of dropped events.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+    
+    /**
+     * Adds an event. This method must only be invoked by the producer thread.
+     * @param type The type of the event.
+     * @param x The x-coordinate of the mouse.
+     * @param y The y-coordinate of the mouse.
+     * @param button The mouse button or 0.
+     * @param time The time of the event in nanoseconds.
+     * @return True if the event was added, false if the ring is full.
+     */
+    public boolean offer(InputEventType type, int x, int y, int button, long time) {
+        long t = tail.get();
+        if(t - head.get() > mask) {
+            dropped++;
+            return false;
+        }
+        int i = (int) t & mask;
+        types[i] = (byte) type.ordinal();
+        xs[i] = x;
+        ys[i] = y;
+        buttons[i] = button;
+        times[i] = time;
+        tail.lazySet(t + 1);
+        return true;
+    }
+    
+    /**
+     * Moves all available events to the given snapshot. This method must only be invoked by
+     * the consumer thread.
+     * @param snapshot The snapshot to fill. Its capacity must be at least the capacity of
+     * this ring.
+     * @return The number of moved events.
+     */
+    public int drainTo(InputSnapshot snapshot) {
+        long h = head.get();
+        long t = tail.get();
+        int n = (int) (t - h);
+        for(long s = h; s < t; s++) {
+            int i = (int) s & mask;
+            snapshot.add(types[i], xs[i], ys[i], buttons[i], times[i]);
+        }
+        head.lazySet(t);
+        return n;
+    }
+    
+    /**
+     * Discards all available events. This method must only be invoked by the consumer thread.
+     */
+    public void discard() {
+        head.lazySet(tail.get());
+    }
+}
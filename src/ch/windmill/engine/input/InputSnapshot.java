@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.input;
+
+/**
+ * The input events of one tick in the order they occured. A snapshot is filled by the
+ * InputRing of a game input and reused in every tick.
+ * @author Cyrill Jauner
+ */
+public class InputSnapshot {
+    
+    private final byte[] types;
+    private final int[] xs, ys, buttons;
+    private final long[] times;
+    private int size;
+    
+    /**
+     * Creates a new empty InputSnapshot object.
+     * @param capacity The max number of events.
+     */
+    public InputSnapshot(int capacity) {
+        types = new byte[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+        buttons = new int[capacity];
+        times = new long[capacity];
+        size = 0;
+    }
+    
+    /**
+     * Adds an event to this snapshot.
+     */
+    void add(byte type, int x, int y, int button, long time) {
+        types[size] = type;
+        xs[size] = x;
+        ys[size] = y;
+        buttons[size] = button;
+        times[size] = time;
+        size++;
+    }
+    
+    /**
+     * Removes all events.
+     */
+    public void clear() {
+        size = 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public InputEventType getType(int i) {
+        return InputEventType.of(types[i]);
+    }
+    
+    public int getX(int i) {
+        return xs[i];
+    }
+    
+    public int getY(int i) {
+        return ys[i];
+    }
+    
+    public int getButton(int i) {
+        return buttons[i];
+    }
+    
+    /**
+     * Gets the time when the event was captured.
+     * @param i The index of the event.
+     * @return The time in nanoseconds, comparable to System.nanoTime.
+     */
+    public long getTime(int i) {
+        return times[i];
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class represents a histogram of durations in nanoseconds. Like a HDR histogram, the
+ * buckets are grouped by powers of two and every group has the same number of linear sub
+ * buckets. This keeps the relative error of a value below 1 / SUB_BUCKETS for all values.
+ * Values can be recorded by several threads without locks. Another thread can drain the
+ * histogram at the same time.
+ * @author Cyrill Jauner
+ */
+public class Histogram {
+    
+    /**
+     * The number of bits of the sub bucket index.
+     */
+    private static final int SUB_BITS = 5;
+    
+    /**
+     * The number of sub buckets in a power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    
+    /**
+     * The number of buckets. Values up to Long.MAX_VALUE can be recorded.
+     */
+    private static final int NUM_BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong sum;
+    private final AtomicLong max;
+    
+    /**
+     * Creates a new empty Histogram object.
+     */
+    public Histogram() {
+        counts = new AtomicLongArray(NUM_BUCKETS);
+        count = new AtomicLong();
+        sum = new AtomicLong();
+        max = new AtomicLong();
+    }
+    
+    /**
+     * Records a value. Negative values are recorded as 0.
+     * @param value The value in nanoseconds.
+     */
+    public void record(long value) {
+        if(value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long currentMax = max.get();
+        while(value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+    
+    /**
+     * Moves all recorded values of this histogram to the target histogram. Values that are
+     * recorded while this method runs are either moved or stay in this histogram, none of
+     * them gets lost.
+     * @param target The histogram to add the values to.
+     */
+    public void drainTo(Histogram target) {
+        long drained = 0;
+        for(int i = 0; i < NUM_BUCKETS; i++) {
+            long c = counts.getAndSet(i, 0);
+            if(c > 0) {
+                target.counts.addAndGet(i, c);
+                drained += c;
+            }
+        }
+        count.addAndGet(-drained);
+        target.count.addAndGet(drained);
+        target.sum.addAndGet(sum.getAndSet(0));
+        long drainedMax = max.getAndSet(0);
+        long targetMax = target.max.get();
+        while(drainedMax > targetMax && !target.max.compareAndSet(targetMax, drainedMax)) {
+            targetMax = target.max.get();
+        }
+    }
+    
+    /**
+     * Adds all recorded values of this histogram to the target histogram. The values stay in
+     * this histogram.
+     * @param target The histogram to add the values to.
+     */
+    public void copyTo(Histogram target) {
+        for(int i = 0; i < NUM_BUCKETS; i++) {
+            long c = counts.get(i);
+            if(c > 0) {
+                target.counts.addAndGet(i, c);
+                target.count.addAndGet(c);
+            }
+        }
+        target.sum.addAndGet(sum.get());
+        long copiedMax = max.get();
+        long targetMax = target.max.get();
+        while(copiedMax > targetMax && !target.max.compareAndSet(targetMax, copiedMax)) {
+            targetMax = target.max.get();
+        }
+    }
+    
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        for(int i = 0; i < NUM_BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+    
+    public long getCount() {
+        return count.get();
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * Gets the mean of the recorded values.
+     * @return The mean in nanoseconds or 0 if the histogram is empty.
+     */
+    public double getMean() {
+        long c = count.get();
+        return c == 0 ? 0 : (double) sum.get() / c;
+    }
+    
+    /**
+     * Gets the value at the given percentile. The value is the highest value of the bucket
+     * that contains the percentile, but never more than the max value.
+     * @param percentile The percentile between 0 and 100.
+     * @return The value in nanoseconds or 0 if the histogram is empty.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for(int i = 0; i < NUM_BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if(total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long seen = 0;
+        for(int i = 0; i < NUM_BUCKETS; i++) {
+            seen += counts.get(i);
+            if(seen >= rank) {
+                return Math.min(highestValueOf(i), Math.max(max.get(), lowestValueOf(i)));
+            }
+        }
+        return max.get();
+    }
+    
+    /**
+     * Gets the bucket of a value.
+     * @param value A value that is not negative.
+     * @return The index of the bucket.
+     */
+    static int bucketOf(long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+    
+    /**
+     * Gets the lowest value of a bucket.
+     * @param bucket The index of the bucket.
+     * @return The lowest value that is counted in the bucket.
+     */
+    static long lowestValueOf(int bucket) {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+    
+    /**
+     * Gets the highest value of a bucket.
+     * @param bucket The index of the bucket.
+     * @return The highest value that is counted in the bucket.
+     */
+    static long highestValueOf(int bucket) {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return lowestValueOf(bucket) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * This class represents the statistics of a histogram at one point in time. The durations
+ * are given in milliseconds.
+ * @author Cyrill Jauner
+ */
+public class HistogramStats {
+    
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    
+    private final long count;
+    private final double mean;
+    private final double p50;
+    private final double p99;
+    private final double p999;
+    private final double max;
+    
+    /**
+     * Creates a new HistogramStats object.
+     * @param count The number of recorded values.
+     * @param mean The mean in milliseconds.
+     * @param p50 The median in milliseconds.
+     * @param p99 The 99th percentile in milliseconds.
+     * @param p999 The 99.9th percentile in milliseconds.
+     * @param max The max value in milliseconds.
+     */
+    @ConstructorProperties({"count", "mean", "p50", "p99", "p999", "max"})
+    public HistogramStats(long count, double mean, double p50, double p99, double p999, double max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+    
+    /**
+     * Creates a new HistogramStats object with the current values of a histogram.
+     * @param histogram The histogram to read.
+     */
+    public HistogramStats(Histogram histogram) {
+        this(histogram.getCount(),
+                histogram.getMean() / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMax() / NANOS_PER_MILLI);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public double getMax() {
+        return max;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.3f p50=%.3f p99=%.3f p999=%.3f max=%.3f ms",
+                count, mean, p50, p99, p999, max);
+    }
+}
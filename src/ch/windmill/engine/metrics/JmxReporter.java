@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.metrics;
+
+import ch.windmill.engine.metrics.LoopMetrics.Metric;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This reporter exposes the statistics of the last interval as a MXBean, e.g. to watch
+ * them in JConsole.
+ * @author Cyrill Jauner
+ */
+public class JmxReporter implements MetricsReporter, LoopMetricsMXBean {
+    
+    private final ObjectName objectName;
+    private volatile Map<String, HistogramStats> stats;
+    private volatile double intervalSeconds;
+    private volatile String configuration;
+    
+    /**
+     * Creates a new JmxReporter object.
+     * @param name The name of the game loop in the object name of the bean.
+     * @throws JMException The name is not a valid object name.
+     */
+    public JmxReporter(String name) throws JMException {
+        objectName = new ObjectName("ch.windmill.engine:type=LoopMetrics,name=" + ObjectName.quote(name));
+        stats = Collections.emptyMap();
+        intervalSeconds = 0;
+        configuration = null;
+    }
+    
+    /**
+     * Registers this reporter at the platform MBean server.
+     * @throws JMException The reporter could not be registered.
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+    }
+    
+    /**
+     * Unregisters this reporter from the platform MBean server.
+     * @throws JMException The reporter is not registered.
+     */
+    public void unregister() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.unregisterMBean(objectName);
+    }
+
+    @Override
+    public void report(LoopMetrics interval, long intervalNanos) {
+        Map<String, HistogramStats> current = new LinkedHashMap<>();
+        for(Map.Entry<Metric, HistogramStats> entry : interval.getStats().entrySet()) {
+            current.put(entry.getKey().name(), entry.getValue());
+        }
+        stats = Collections.unmodifiableMap(current);
+        intervalSeconds = intervalNanos * 0.000000001;
+        configuration = interval.getConfiguration();
+    }
+
+    @Override
+    public Map<String, HistogramStats> getStats() {
+        return stats;
+    }
+
+    @Override
+    public double getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return configuration;
+    }
+}
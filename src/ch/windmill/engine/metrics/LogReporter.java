@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.metrics;
+
+import ch.windmill.engine.metrics.LoopMetrics.Metric;
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * This reporter prints the statistics of every metric to a stream. The rate of a metric is
+ * the number of recorded durations per second.
+ * @author Cyrill Jauner
+ */
+public class LogReporter implements MetricsReporter {
+    
+    private final PrintStream out;
+    
+    /**
+     * Creates a new LogReporter object that prints to the standard output.
+     */
+    public LogReporter() {
+        this(System.out);
+    }
+    
+    /**
+     * Creates a new LogReporter object.
+     * @param out The stream to print to.
+     */
+    public LogReporter(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void report(LoopMetrics interval, long intervalNanos) {
+        double seconds = intervalNanos * 0.000000001;
+        if(interval.getConfiguration() != null) {
+            out.println("Configuration: " + interval.getConfiguration());
+        }
+        for(Map.Entry<Metric, HistogramStats> entry : interval.getStats().entrySet()) {
+            HistogramStats stats = entry.getValue();
+            out.println(String.format("%s: %.1f/s %s", entry.getKey(), stats.getCount() / seconds, stats));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * This class holds the histograms of a game loop. The loop records the duration of every
+ * tick and frame and of the phases of them. A reporter reads the histograms from another
+ * thread, so the game loop never waits for a report.
+ * @author Cyrill Jauner
+ */
+public class LoopMetrics {
+    
+    /**
+     * The durations that are recorded by a game loop.
+     */
+    public enum Metric {
+        /**
+         * The duration of an update tick, i.e. the input and the update phase.
+         */
+        TICK,
+        /**
+         * The duration of a frame, from the start of the loop iteration to the presentation.
+         */
+        FRAME,
+        /**
+         * The duration of the input phase of a tick.
+         */
+        INPUT,
+        /**
+         * The duration of the update phase of a tick.
+         */
+        UPDATE,
+        /**
+         * The duration of the draw phase of a frame.
+         */
+        DRAW,
+        /**
+         * The duration to show a drawn frame on the screen.
+         */
+        PRESENT,
+        /**
+         * The delay between the deadline of a loop scheduler and the actual wake up.
+         */
+        WAKE_JITTER,
+        /**
+         * The age of the oldest input event of a tick when the tick takes the events.
+         */
+        INPUT_AGE,
+        /**
+         * The delay from the capture of the oldest input event of a frame to the presentation
+         * of the first frame that shows the result of the event.
+         */
+        INPUT_LATENCY
+    }
+    
+    private final Histogram[] histograms;
+    
+    /**
+     * A description of the configuration of the loop, e.g. the render profile.
+     */
+    private volatile String configuration;
+    
+    /**
+     * Creates a new LoopMetrics object with empty histograms.
+     */
+    public LoopMetrics() {
+        histograms = new Histogram[Metric.values().length];
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+    
+    public String getConfiguration() {
+        return configuration;
+    }
+    
+    /**
+     * Sets the description of the configuration of the loop. The reporters show it with the
+     * statistics, so the effect of a configuration change can be seen in the durations.
+     * @param configuration The description or null.
+     */
+    public void setConfiguration(String configuration) {
+        this.configuration = configuration;
+    }
+    
+    /**
+     * Records a duration.
+     * @param metric The recorded metric.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(Metric metric, long nanos) {
+        histograms[metric.ordinal()].record(nanos);
+    }
+    
+    /**
+     * Gets the histogram of a metric.
+     * @param metric The metric.
+     * @return The histogram of the metric.
+     */
+    public Histogram get(Metric metric) {
+        return histograms[metric.ordinal()];
+    }
+    
+    /**
+     * Moves all recorded durations to the target metrics. The configuration is copied.
+     * @param target The metrics to add the durations to.
+     */
+    public void drainTo(LoopMetrics target) {
+        target.configuration = configuration;
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i].drainTo(target.histograms[i]);
+        }
+    }
+    
+    /**
+     * Removes all recorded durations.
+     */
+    public void reset() {
+        for(Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+    
+    /**
+     * Gets the statistics of all metrics that have recorded durations.
+     * @return A map with the statistics of the metrics.
+     */
+    public Map<Metric, HistogramStats> getStats() {
+        Map<Metric, HistogramStats> stats = new EnumMap<>(Metric.class);
+        for(Metric metric : Metric.values()) {
+            Histogram histogram = get(metric);
+            if(histogram.getCount() > 0) {
+                stats.put(metric, new HistogramStats(histogram));
+            }
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class publishes the metrics of a game loop periodically. A daemon thread moves the
+ * recorded durations of the loop to an interval histogram and passes it to all reporters.
+ * @author Cyrill Jauner
+ */
+public class MetricsPublisher {
+    
+    private final LoopMetrics source;
+    private final LoopMetrics interval;
+    private final List<MetricsReporter> reporters;
+    private ScheduledExecutorService executor;
+    private long lastPublish;
+    
+    /**
+     * Creates a new MetricsPublisher object.
+     * @param source The metrics of the game loop.
+     */
+    public MetricsPublisher(LoopMetrics source) {
+        this.source = source;
+        interval = new LoopMetrics();
+        reporters = new CopyOnWriteArrayList<>();
+        executor = null;
+        lastPublish = System.nanoTime();
+    }
+    
+    public void addReporter(MetricsReporter reporter) {
+        reporters.add(reporter);
+    }
+    
+    public void removeReporter(MetricsReporter reporter) {
+        reporters.remove(reporter);
+    }
+    
+    /**
+     * Starts to publish the metrics in the given period. This method does nothing if the
+     * publisher is already started.
+     * @param period The time between two reports.
+     * @param unit The time unit of the period.
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if(executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-publisher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            source.reset();
+            lastPublish = System.nanoTime();
+            executor.scheduleAtFixedRate(this::publish, period, period, unit);
+        }
+    }
+    
+    /**
+     * Stops to publish the metrics.
+     */
+    public synchronized void stop() {
+        if(executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+    
+    /**
+     * Passes the durations that were recorded since the last publication to all reporters.
+     */
+    public synchronized void publish() {
+        long now = System.nanoTime();
+        source.drainTo(interval);
+        for(MetricsReporter reporter : reporters) {
+            try {
+                reporter.report(interval, now - lastPublish);
+            } catch(RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+        interval.reset();
+        lastPublish = now;
+    }
+}
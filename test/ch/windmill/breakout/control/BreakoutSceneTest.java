@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Ball;
+import ch.windmill.breakout.model.BrickStore;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.engine.GameState;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class BreakoutSceneTest {
+    
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 600;
+    
+    /**
+     * The number of steps before the allocations of a step are measured.
+     */
+    private static final int WARMUP_STEPS = 200000;
+    
+    public BreakoutSceneTest() {
+        
+    }
+    
+    /**
+     * Creates a scene with a level of 20 x 20 red bricks and one ball.
+     * @return A scene that is ready to step.
+     */
+    private BreakoutScene createScene() {
+        return createScene(1);
+    }
+    
+    /**
+     * Creates a scene with a level of 20 x 20 red bricks.
+     * @param numBalls The number of balls in the level.
+     * @return A scene that is ready to step.
+     */
+    private BreakoutScene createScene(int numBalls) {
+        int[] rgb = new int[20 * 20];
+        Arrays.fill(rgb, 0xFFFF0000);
+        Level level = new Level(WIDTH / 20f, WIDTH / 40f, WIDTH, HEIGHT);
+        level.generateBricks(rgb, 20);
+        level.setPaddle(LevelManager.createInitPaddle(WIDTH, HEIGHT));
+        for(int i = 0; i < numBalls; i++) {
+            Ball ball = LevelManager.createInitBall();
+            ball.position.set((i * 37) % (WIDTH - 30), 350 + (i * 53) % 150);
+            ball.velocity.mulX(i % 3 - 1);
+            level.addBall(ball);
+        }
+        
+        BreakoutScene scene = new BreakoutScene(1.0f / 100, WIDTH, HEIGHT);
+        scene.setLevel(level);
+        return scene;
+    }
+    
+    /**
+     * Steps a scene with discrete and with continuous collisions and checks that one window
+     * of steps after a long warm-up does not allocate. The asserts in this class have no
+     * messages. When the JIT compiles a method, the running thread interns the string
+     * constants of its class, so a late compile of stepInPlay would add them to the window.
+     */
+    @Test
+    public void testStepDoesNotAllocate() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        
+        for(boolean continuous : new boolean[] {false, true}) {
+            BreakoutScene scene = createScene();
+            scene.setContinuous(continuous);
+            GameState state = new GameState();
+            state.setElapsed(10000000L);
+            int[] destroyed = new int[1];
+            scene.getLevel().addBrickListener((store, brick) -> destroyed[0]++);
+            stepInPlay(scene, state, WARMUP_STEPS);
+            
+            destroyed[0] = 0;
+            long overhead = bean.getThreadAllocatedBytes(threadId);
+            overhead = bean.getThreadAllocatedBytes(threadId) - overhead;
+            long before = bean.getThreadAllocatedBytes(threadId);
+            int bounces = stepInPlay(scene, state, 10000);
+            long allocated = bean.getThreadAllocatedBytes(threadId) - before - overhead;
+            
+            assertTrue(bounces > 20);
+            assertTrue(destroyed[0] > 0);
+            assertEquals(0, allocated);
+        }
+    }
+    
+    /**
+     * Steps a scene with one ball and keeps the ball in play. A ball on the ground, a ball
+     * that bounces straight up and down in an empty column and every ball after 1000 steps
+     * is put back into the level at another position with a diagonal velocity, so the ball
+     * never stays in a loop that misses all bricks. All bricks are restored when less than a
+     * quarter of them is left, so the ball keeps hitting bricks. This method does not
+     * allocate.
+     * @param scene The scene to step.
+     * @param state The game state of the steps.
+     * @param steps The number of steps.
+     * @return The number of steps that changed the direction of the ball.
+     */
+    private int stepInPlay(BreakoutScene scene, GameState state, int steps) {
+        Ball ball = scene.getLevel().getBalls().get(0);
+        BrickStore bricks = scene.getLevel().getBrickStore();
+        int bounces = 0;
+        int respawns = 0;
+        for(int i = 0; i < steps; i++) {
+            float vx = ball.velocity.x;
+            float vy = ball.velocity.y;
+            scene.step(state);
+            if(ball.velocity.x == 0 || i % 1000 == 999) {
+                respawns++;
+                ball.position.set(50 + (respawns * 137) % (WIDTH - 100), 350);
+                ball.lastPosition.set(ball.position);
+                ball.velocity.set(respawns % 2 == 0 ? 177 : -177, -177);
+            } else if(ball.velocity.x != vx || ball.velocity.y != vy) {
+                bounces++;
+            }
+            if(bricks.liveCount() < bricks.size() / 4) {
+                bricks.reset();
+            }
+        }
+        return bounces;
+    }
+    
+    @Test
+    public void testParallelStepMatchesSequential() {
+        BreakoutScene sequential = createScene(300);
+        BreakoutScene parallel = createScene(300);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        parallel.setPool(pool);
+        parallel.setParallelThreshold(8);
+        GameState state = new GameState();
+        state.setElapsed(10000000L);
+        
+        for(int i = 0; i < 2000; i++) {
+            sequential.step(state);
+            parallel.step(state);
+        }
+        pool.shutdown();
+        
+        for(int i = 0; i < 300; i++) {
+            Ball a = sequential.getLevel().getBalls().get(i);
+            Ball b = parallel.getLevel().getBalls().get(i);
+            assertEquals(Float.floatToIntBits(a.position.x), Float.floatToIntBits(b.position.x));
+            assertEquals(Float.floatToIntBits(a.position.y), Float.floatToIntBits(b.position.y));
+            assertEquals(Float.floatToIntBits(a.velocity.x), Float.floatToIntBits(b.velocity.x));
+            assertEquals(Float.floatToIntBits(a.velocity.y), Float.floatToIntBits(b.velocity.y));
+        }
+        BrickStore a = sequential.getLevel().getBrickStore();
+        BrickStore b = parallel.getLevel().getBrickStore();
+        assertTrue(a.liveCount() < a.size());
+        assertEquals(a.liveCount(), b.liveCount());
+        for(int i = 0; i < a.size(); i++) {
+            assertEquals(a.getLifePoints(i), b.getLifePoints(i));
+        }
+    }
+    
+    @Test
+    public void testSweptCollisionPreventsTunneling() {
+        BreakoutScene discrete = createThinBrickScene();
+        BreakoutScene continuous = createThinBrickScene();
+        continuous.setContinuous(true);
+        GameState state = new GameState();
+        state.setElapsed(100000000L);
+        
+        discrete.step(state);
+        continuous.step(state);
+        
+        assertEquals(10, discrete.getLevel().remainingBricks());
+        assertEquals(9, continuous.getLevel().remainingBricks());
+        Ball ball = continuous.getLevel().getBalls().get(0);
+        assertTrue(ball.velocity.y > 0);
+        assertTrue(ball.position.y > 55);
+    }
+    
+    @Test
+    public void testSweptHitsAreDamagedWhenBallReachesGround() {
+        BreakoutScene scene = createThinBrickScene();
+        scene.setContinuous(true);
+        Ball ball = scene.getLevel().getBalls().get(0);
+        ball.position.set(20, 300);
+        ball.lastPosition.set(20, 300);
+        ball.velocity.set(0, -8000);
+        GameState state = new GameState();
+        state.setElapsed(100000000L);
+        
+        scene.step(state);
+        
+        assertTrue(scene.isLastBallOut());
+        assertEquals(9, scene.getLevel().remainingBricks());
+    }
+    
+    /**
+     * Creates a scene with a row of thin bricks at y = 50 and a fast ball below the
+     * bricks that moves up.
+     * @return A scene that is ready to step.
+     */
+    private BreakoutScene createThinBrickScene() {
+        int[] rgb = new int[10 * 11];
+        Arrays.fill(rgb, 0xFFFFFFFF);
+        Arrays.fill(rgb, 100, 110, 0xFFFF0000);
+        Level level = new Level(60, 5, WIDTH, HEIGHT);
+        level.generateBricks(rgb, 10);
+        level.setPaddle(LevelManager.createInitPaddle(WIDTH, HEIGHT));
+        Ball ball = new Ball(12, 100, 290, 300);
+        ball.velocity.set(0, -5000);
+        level.addBall(ball);
+        
+        BreakoutScene scene = new BreakoutScene(1.0f / 100, WIDTH, HEIGHT);
+        scene.setLevel(level);
+        return scene;
+    }
+}
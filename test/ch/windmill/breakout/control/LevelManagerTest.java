@@ -23,6 +23,11 @@
  */
 package ch.windmill.breakout.control;
 
+import ch.windmill.breakout.model.Brick.BrickType;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.breakout.model.LevelTemplate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -41,4 +46,70 @@ public class LevelManagerTest {
         LevelManager manager = new LevelManager("./res/levels");
         manager.loadLevels(600, 900);
     }
+    
+    @Test
+    public void testLazyLoad() {
+        LevelManager manager = new LevelManager("./res/levels");
+        manager.loadLevels(600, 600);
+        String[] keys = manager.getLevelKeys();
+        assertTrue(keys.length > 0);
+        
+        LevelTemplate template = manager.getTemplate(keys[0]);
+        assertNotNull(template);
+        assertSame(template, manager.getTemplate(keys[0]));
+        assertNotSame(manager.createLevel(keys[0]), manager.createLevel(keys[0]));
+        assertNull(manager.getTemplate("no level"));
+        
+        manager.prefetch().join();
+        for(String key : keys) {
+            assertTrue(manager.getTemplate(key).getNumBricks() > 0);
+        }
+    }
+    
+    @Test
+    public void testGeneratedLevels() {
+        LevelManager manager = new LevelManager("./res/levels");
+        manager.loadLevels(600, 600);
+        int numFiles = manager.getLevelKeys().length;
+        LevelGenerator generator = new LevelGenerator(42).setGridSize(40, 25).setDensity(0.5)
+                .setTypeWeight(BrickType.GREEN, 0);
+        generator.register(manager, 3, 600, 600);
+        assertEquals(numFiles + 3, manager.getLevelKeys().length);
+        
+        LevelTemplate template = manager.getTemplate(LevelGenerator.KEY_PREFIX+1);
+        int numBricks = template.getNumBricks();
+        assertTrue(numBricks > 400 && numBricks < 600);
+        assertEquals(numBricks, generator.generate(1, 600, 600).getNumBricks());
+        Level level = template.instantiate();
+        for(int i = 0; i < numBricks; i++) {
+            assertEquals(BrickType.STANDARD, level.getBrickStore().getType(i));
+        }
+    }
+    
+    @Test
+    public void testReplacedLevelIsNotStale() throws InterruptedException {
+        LevelManager manager = new LevelManager("./res/levels");
+        LevelGenerator generator = new LevelGenerator(7).setGridSize(10, 5);
+        LevelTemplate oldTemplate = generator.generate(0, 600, 600);
+        LevelTemplate newTemplate = generator.generate(1, 600, 600);
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch replaced = new CountDownLatch(1);
+        manager.register("level", () -> {
+            building.countDown();
+            try {
+                replaced.await();
+            } catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return oldTemplate;
+        });
+        
+        CompletableFuture<LevelTemplate> oldGet = CompletableFuture.supplyAsync(() -> manager.getTemplate("level"));
+        building.await();
+        manager.register("level", () -> newTemplate);
+        replaced.countDown();
+        
+        assertSame(oldTemplate, oldGet.join());
+        assertSame(newTemplate, manager.getTemplate("level"));
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.Brick.BrickType;
+import ch.windmill.breakout.model.BrickStore;
+import ch.windmill.breakout.model.Level;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class LevelPackTest {
+    
+    public LevelPackTest() {
+        
+    }
+    
+    @Test
+    public void testWriteAndRead() throws IOException {
+        int[] first = {0xFFFF0000, 0xFFFFFFFF, 0xFF00FF00, 0xFF123456, 0xFFFF0000};
+        int[] second = {0xFFFFFFFF, 0xFF00FF00};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(out, Arrays.asList(first, second), 2);
+        
+        LevelPack pack = new LevelPack(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(2, pack.getNumLevels());
+        assertEquals(2, pack.getCols(0));
+        assertEquals(3, pack.getRows(0));
+        assertNull(pack.getType(0, 1, 0));
+        assertEquals(BrickType.GREEN, pack.getType(0, 0, 1));
+        assertEquals(BrickType.STANDARD, pack.getType(0, 1, 1));
+        
+        Level level = pack.createTemplate(0, 600, 600).instantiate();
+        BrickStore store = level.getBrickStore();
+        assertEquals(4, store.size());
+        assertEquals(300, store.getX(2), 0);
+        assertEquals(150, store.getY(2), 0);
+        assertEquals(3, level.getGrid().get(0, 2));
+        assertEquals(1, pack.createTemplate(1, 600, 600).getNumBricks());
+    }
+    
+    @Test(expected = IOException.class)
+    public void testInvalidPack() throws IOException {
+        new LevelPack(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 0, 0, 0, 1, 0, 0, 0, 0}));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyRows() throws IOException {
+        LevelPack.write(new ByteArrayOutputStream(), Arrays.asList(new int[70000]), 1);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.control;
+
+import ch.windmill.breakout.model.BrickStore;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.breakout.model.LevelTemplate;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class LevelStreamBuilderTest {
+    
+    public LevelStreamBuilderTest() {
+        
+    }
+    
+    @Test
+    public void testBandsMatchWholeImage() throws IOException {
+        int width = 7;
+        int height = 5;
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                img.setRGB(x, y, (x + y) % 3 == 0 ? 0xFFFFFF : (x % 2 == 0 ? 0xFF0000 : 0x00FF00));
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", png);
+        
+        Level expected = LevelTemplate.fromImage(img, 600, 600, 10).instantiate();
+        Level streamed;
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(png.toByteArray()))) {
+            streamed = new LevelStreamBuilder(600, 600, 10).setBandRows(2).build(in).instantiate();
+        }
+        
+        BrickStore e = expected.getBrickStore();
+        BrickStore s = streamed.getBrickStore();
+        assertEquals(e.size(), s.size());
+        for(int i = 0; i < e.size(); i++) {
+            assertEquals(e.getX(i), s.getX(i), 0);
+            assertEquals(e.getY(i), s.getY(i), 0);
+            assertEquals(e.getType(i), s.getType(i));
+        }
+        assertEquals(expected.getGrid().getRows(), streamed.getGrid().getRows());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.model;
+
+import ch.windmill.engine.GameState;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class BrickBatchTest {
+    
+    public BrickBatchTest() {
+        
+    }
+    
+    @Test
+    public void testSamePixelsAsSingleBricks() {
+        int cols = 13, rows = 9;
+        int[] rgb = new int[cols * rows];
+        for(int i = 0; i < rgb.length; i++) {
+            rgb[i] = i % 5 == 0 ? 0xFFFFFFFF : i % 3 == 0 ? 0xFF00FF00 : 0xFFFF0000;
+        }
+        Level level = new Level(600f / cols, 300f / cols, 600, 300);
+        level.generateBricks(rgb, cols);
+        BrickStore store = level.getBrickStore();
+        store.damage(4, 1000);
+        store.damage(20, 1000);
+        
+        BufferedImage single = new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = single.createGraphics();
+        store.draw(new GameState(), g2);
+        g2.dispose();
+        
+        BufferedImage batched = new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB);
+        g2 = batched.createGraphics();
+        new BrickBatch().draw(store, g2);
+        g2.dispose();
+        
+        for(int y = 0; y < 300; y++) {
+            for(int x = 0; x < 600; x++) {
+                assertEquals("pixel "+x+","+y, single.getRGB(x, y), batched.getRGB(x, y));
+            }
+        }
+    }
+}
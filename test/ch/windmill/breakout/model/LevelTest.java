@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.model;
+
+import ch.windmill.breakout.exception.IllegalColorException;
+import java.awt.Color;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class LevelTest {
+    
+    public LevelTest() {
+        
+    }
+    
+    @Test
+    public void testRemainingBricks() {
+        int[] rgb = new int[4 * 3];
+        Arrays.fill(rgb, 0xFFFFFFFF);
+        rgb[0] = 0xFFFF0000;
+        rgb[5] = 0xFF00FF00;
+        rgb[11] = 0xFFFF0000;
+        Level level = new Level(10, 5, 40, 100);
+        level.generateBricks(rgb, 4);
+        final int[] destroyed = new int[1];
+        level.addBrickListener((store, brick) -> destroyed[0]++);
+        
+        assertEquals(3, level.remainingBricks());
+        BrickStore store = level.getBrickStore();
+        store.damage(0, 100);
+        store.damage(1, 100);
+        assertEquals(2, level.remainingBricks());
+        assertEquals(1, destroyed[0]);
+        assertEquals(BrickGrid.EMPTY, level.getGrid().get(0, 0));
+        
+        store.damage(0, 100);
+        store.damage(1, 100);
+        store.damage(2, 100);
+        assertEquals(0, level.remainingBricks());
+        assertEquals(3, destroyed[0]);
+        
+        level.reset();
+        assertEquals(3, level.remainingBricks());
+        assertEquals(2, level.getGrid().get(3, 2));
+    }
+    
+    @Test
+    public void testTemplateInstancesAreIndependent() {
+        int[] rgb = {0xFFFF0000, 0xFFFFFFFF, 0xFF00FF00, 0xFFFF0000};
+        LevelTemplate template = LevelTemplate.fromRgb(rgb, 10, 5, 20, 100, 2);
+        Level first = template.instantiate();
+        Level second = template.instantiate();
+        
+        first.getBrickStore().damage(0, 100);
+        first.getBrickStore().setType(1, Brick.BrickType.STANDARD);
+        assertEquals(2, first.remainingBricks());
+        assertEquals(BrickGrid.EMPTY, first.getGrid().get(0, 0));
+        
+        assertEquals(3, second.remainingBricks());
+        assertEquals(0, second.getGrid().get(0, 0));
+        assertEquals(Brick.BrickType.GREEN, second.getBrickStore().getType(1));
+        assertEquals(3, template.instantiate().remainingBricks());
+        assertNotSame(first.getBalls().get(0), second.getBalls().get(0));
+        assertNotSame(first.getPaddle(), second.getPaddle());
+    }
+    
+    @Test
+    public void testUnknownColorPolicy() {
+        int[] rgb = {0xFFFF0000, 0xFF123456, 0x00FFFFFF, 0xFF00FF00};
+        Level level = new Level(10, 5, 20, 100);
+        level.generateBricks(rgb, 2);
+        assertEquals(3, level.remainingBricks());
+        assertEquals(Brick.BrickType.STANDARD, level.getBrickStore().getType(1));
+        
+        level = new Level(10, 5, 20, 100);
+        level.generateBricks(rgb, 2, new BrickColorTable(BrickColorTable.UnknownColorPolicy.SKIP));
+        assertEquals(2, level.remainingBricks());
+        assertEquals(Brick.BrickType.GREEN, level.getBrickStore().getType(1));
+        
+        assertNull(Brick.BrickType.forColor(Color.white));
+        try {
+            new Level(10, 5, 20, 100).generateBricks(rgb, 2, new BrickColorTable(BrickColorTable.UnknownColorPolicy.FAIL));
+            fail("Unknown color was accepted");
+        } catch(IllegalColorException ex) {
+            // expected
+        }
+    }
+}
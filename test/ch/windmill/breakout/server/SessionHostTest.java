@@ -0,0 +1,75 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.breakout.server;
+
+import ch.windmill.breakout.control.LevelManager;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.engine.metrics.LoopMetrics.Metric;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class SessionHostTest {
+    
+    public SessionHostTest() {
+        
+    }
+    
+    @Test
+    public void testSessionsAreIsolated() throws InterruptedException {
+        SessionHost host = new SessionHost(2, 0, TimeUnit.MILLISECONDS);
+        List<BreakoutSession> sessions = new ArrayList<>();
+        List<Level> levels = new ArrayList<>();
+        for(int i = 0; i < 8; i++) {
+            sessions.add(host.open(() -> {
+                Level level = new Level(60, 30, 600, 600);
+                level.generateBricks(new int[] {0xFFFF0000, 0xFF00FF00, 0xFFFF0000}, 3);
+                level.setPaddle(LevelManager.createInitPaddle(600, 600));
+                level.addBall(LevelManager.createInitBall());
+                levels.add(level);
+                return level;
+            }));
+        }
+        
+        long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while(host.getTicks() < 8000 && System.nanoTime() < timeout) {
+            Thread.sleep(10);
+        }
+        host.shutdown();
+        
+        assertEquals(8, levels.size());
+        for(int i = 0; i < sessions.size(); i++) {
+            assertTrue(sessions.get(i).getTicks() > 0);
+            assertSame(levels.get(i), sessions.get(i).getBreakout().getScene().getLevel());
+        }
+        assertEquals(0, host.getNumSessions());
+        assertTrue(host.getMetrics().get(Metric.TICK).getCount() > 0);
+    }
+}
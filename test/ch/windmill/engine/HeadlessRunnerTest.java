@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+import ch.windmill.breakout.control.Breakout;
+import ch.windmill.breakout.control.LevelManager;
+import ch.windmill.breakout.model.Ball;
+import ch.windmill.breakout.model.Level;
+import ch.windmill.engine.input.GameInput;
+import ch.windmill.engine.input.InputPlayback;
+import ch.windmill.engine.input.InputRecorder;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class HeadlessRunnerTest {
+    
+    public HeadlessRunnerTest() {
+        
+    }
+    
+    @Test
+    public void testRunBreakout() {
+        LevelManager manager = new LevelManager("./res/levels");
+        manager.loadLevels(600, 600);
+        Level level = manager.createLevel("level 1");
+        Breakout breakout = new Breakout(600, 600);
+        breakout.setLevel(level);
+        Ball ball = level.getBalls().get(0);
+        float startY = ball.position.y;
+        
+        InterpolatedLoop loop = new InterpolatedLoop(3, 10, TimeUnit.MILLISECONDS);
+        HeadlessRunner runner = new HeadlessRunner(breakout, new GameState(), loop, 10, TimeUnit.MILLISECONDS);
+        long iterations = runner.run(100);
+        
+        assertEquals(100, iterations);
+        assertTrue(breakout.isRunning());
+        assertEquals(startY + 100 * ball.velocity.y * 0.01f, ball.position.y, 0.01);
+    }
+    
+    @Test
+    public void testReplayIsDeterministic() {
+        InputRecorder recorder = new InputRecorder();
+        GameInput input = new GameInput();
+        for(int i = 0; i < 5000; i++) {
+            input.mouseMoving = (i % 7 != 0);
+            input.mouseX = (i * 13) % 540;
+            recorder.record(input);
+        }
+        
+        float[] first = replay(recorder.toPlayback(), 10);
+        float[] second = replay(recorder.toPlayback(), 17);
+        assertEquals(Float.floatToIntBits(first[0]), Float.floatToIntBits(second[0]));
+        assertEquals(Float.floatToIntBits(first[1]), Float.floatToIntBits(second[1]));
+        assertEquals(Float.floatToIntBits(first[2]), Float.floatToIntBits(second[2]));
+    }
+    
+    /**
+     * Replays the given input in a new deterministic breakout game.
+     * @param playback The input to replay.
+     * @param step The step of the runner in milliseconds. It must not change the result.
+     * @return The ball position and the number of remaining bricks.
+     */
+    private float[] replay(InputPlayback playback, long step) {
+        LevelManager manager = new LevelManager("./res/levels");
+        manager.loadLevels(600, 600);
+        Level level = manager.createLevel("level 3");
+        Breakout breakout = new Breakout(600, 600);
+        breakout.setLevel(level);
+        breakout.setDeterministic(true);
+        
+        HeadlessRunner runner = new HeadlessRunner(breakout, new GameState(), new VariableLoop(), step, TimeUnit.MILLISECONDS);
+        runner.replay(playback);
+        Ball ball = level.getBalls().get(0);
+        return new float[] {ball.position.x, ball.position.y, level.remainingBricks()};
+    }
+}
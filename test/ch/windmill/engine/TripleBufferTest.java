@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class TripleBufferTest {
+    
+    public TripleBufferTest() {
+        
+    }
+    
+    @Test
+    public void testReaderSeesCompleteBuffers() throws InterruptedException {
+        int numWrites = 200000;
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+        assertNull(buffer.acquire());
+        
+        Thread writer = new Thread(() -> {
+            for(long i = 1; i <= numWrites; i++) {
+                long[] back = buffer.getBack();
+                back[0] = i;
+                back[1] = -i;
+                buffer.publish();
+            }
+        });
+        writer.start();
+        
+        long last = 0;
+        while(last < numWrites) {
+            long[] front = buffer.acquire();
+            if(front != null) {
+                assertEquals(front[0], -front[1]);
+                assertTrue(front[0] >= last);
+                last = front[0];
+            }
+        }
+        writer.join();
+        assertEquals(numWrites, buffer.acquire()[0]);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.input;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class InputRecorderTest {
+    
+    public InputRecorderTest() {
+        
+    }
+    
+    @Test
+    public void testWriteAndRead() throws IOException {
+        int[] xs = {0, 5, 600, 599, -3, 100000, 42};
+        GameInput input = new GameInput();
+        InputRecorder recorder = new InputRecorder();
+        for(int i = 0; i < xs.length; i++) {
+            input.mouseX = xs[i];
+            input.mouseMoving = (i != 2);
+            recorder.record(input);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.writeTo(out);
+        
+        InputPlayback playback = InputPlayback.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(xs.length, playback.getTicks());
+        GameInput replayed = new GameInput();
+        for(int i = 0; i < xs.length; i++) {
+            assertTrue(playback.hasNext());
+            playback.next(replayed);
+            assertEquals(i != 2, replayed.mouseMoving);
+            if(i != 2) {
+                assertEquals(xs[i], replayed.mouseX);
+            }
+        }
+        assertFalse(playback.hasNext());
+    }
+}
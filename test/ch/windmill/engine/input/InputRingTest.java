@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.input;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class InputRingTest {
+    
+    public InputRingTest() {
+        
+    }
+    
+    @Test
+    public void testFullRingDropsEvents() {
+        InputRing ring = new InputRing(3);
+        assertEquals(4, ring.getCapacity());
+        for(int i = 0; i < 6; i++) {
+            assertEquals(i < 4, ring.offer(InputEventType.Move, i, 0, 0, i));
+        }
+        assertEquals(2, ring.getDropped());
+        
+        InputSnapshot snapshot = new InputSnapshot(ring.getCapacity());
+        assertEquals(4, ring.drainTo(snapshot));
+        assertEquals(3, snapshot.getX(3));
+        assertTrue(ring.offer(InputEventType.Press, 7, 8, 1, 9));
+    }
+    
+    @Test
+    public void testProducerThread() throws InterruptedException {
+        int numEvents = 200000;
+        InputRing ring = new InputRing(64);
+        Thread producer = new Thread(() -> {
+            for(int i = 0; i < numEvents; i++) {
+                while(!ring.offer(InputEventType.Move, i, -i, 0, i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        
+        InputSnapshot snapshot = new InputSnapshot(ring.getCapacity());
+        int next = 0;
+        while(next < numEvents) {
+            snapshot.clear();
+            ring.drainTo(snapshot);
+            for(int i = 0; i < snapshot.size(); i++) {
+                assertEquals(next, snapshot.getX(i));
+                assertEquals(-next, snapshot.getY(i));
+                assertEquals(next, snapshot.getTime(i));
+                next++;
+            }
+        }
+        producer.join();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 jaunerc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ch.windmill.engine.metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author jaunerc
+ */
+public class HistogramTest {
+    
+    public HistogramTest() {
+        
+    }
+    
+    @Test
+    public void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for(long i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(100000, histogram.getCount());
+        assertEquals(100000000, histogram.getMax());
+        assertEquals(50000000, histogram.getValueAtPercentile(50), 50000000 / 32.0);
+        assertEquals(99000000, histogram.getValueAtPercentile(99), 99000000 / 32.0);
+        assertEquals(99900000, histogram.getValueAtPercentile(99.9), 99900000 / 32.0);
+        assertEquals(100000000, histogram.getValueAtPercentile(100));
+    }
+    
+    @Test
+    public void testDrainTo() {
+        Histogram histogram = new Histogram();
+        Histogram target = new Histogram();
+        histogram.record(5);
+        histogram.record(7000000);
+        histogram.drainTo(target);
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(2, target.getCount());
+        assertEquals(7000000, target.getMax());
+        assertEquals(5, target.getValueAtPercentile(50));
+    }
+}